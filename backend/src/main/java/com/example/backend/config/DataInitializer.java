@@ -13,9 +13,19 @@ import com.example.backend.repository.OrderRepository;
 import com.example.backend.repository.ProductRepository;
 import com.example.backend.repository.ReviewRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.service.CategoryFacetService;
+import com.example.backend.service.OfertaService;
+import com.example.backend.service.RatingSummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.math.BigDecimal;
@@ -45,8 +55,23 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RatingSummaryService ratingSummaryService;
+
+    @Autowired
+    private OfertaService ofertaService;
+
+    @Autowired
+    private CategoryFacetService facetService;
+
     @Override
     public void run(String... args) throws Exception {
+        // Usuarios anteriores a los índices únicos: completar claves normalizadas
+        backfillUserKeys();
+
         // Create admin user if not present
         if (!userRepository.existsByEmail("admin@admin.com")) {
             User admin = new User();
@@ -87,6 +112,12 @@ public class DataInitializer implements CommandLineRunner {
             }
         }
 
+        // Precios guardados como String por versiones anteriores -> Decimal128
+        migrateStringPrices();
+
+        // Facetas por categoría sobre el catálogo ya sembrado y migrado
+        facetService.rebuild();
+
         // Initialize offers if not present
         if (ofertaRepository.count() == 0) {
             initializeOfertas();
@@ -99,6 +130,12 @@ public class DataInitializer implements CommandLineRunner {
             System.out.println("Reviews initialized");
         }
 
+        // Resúmenes de valoración: reconstruir si aún no existen (reviews previas o recién sembradas)
+        if (ratingSummaryService.isEmpty() && reviewRepository.count() > 0) {
+            int rebuilt = ratingSummaryService.rebuildAll();
+            System.out.println("Rating summaries rebuilt: " + rebuilt);
+        }
+
         // Initialize sample orders if not present
         if (orderRepository.count() == 0) {
             initializeOrders();
@@ -158,13 +195,51 @@ public class DataInitializer implements CommandLineRunner {
         productRepository.saveAll(products);
     }
 
+    private void migrateStringPrices() {
+        Query stringPrices = new Query(Criteria.where("price").type(2)); // 2 = BSON string
+        AggregationUpdate toDecimal = AggregationUpdate.update()
+                .set("price").toValue(ConvertOperators.valueOf("price").convertToDecimal());
+        long migrated = mongoTemplate.updateMulti(stringPrices, toDecimal, Product.class).getModifiedCount();
+        if (migrated > 0) {
+            System.out.println("Product prices migrated to Decimal128: " + migrated);
+        }
+    }
+
+    private void backfillUserKeys() {
+        Query missingKeys = new Query(new Criteria().orOperator(
+                Criteria.where("usernameKey").exists(false),
+                Criteria.where("emailKey").exists(false)));
+        for (User user : mongoTemplate.find(missingKeys, User.class)) {
+            // Nunca escribir null explícito: un índice sparse sí indexa los null
+            // (el documento se leyó sin las claves, se calculan desde los campos originales)
+            String usernameKey = User.normalizeKey(user.getUsername());
+            String emailKey = User.normalizeKey(user.getEmail());
+            Update update = new Update();
+            if (usernameKey != null) update.set("usernameKey", usernameKey);
+            if (emailKey != null) update.set("emailKey", emailKey);
+            if (update.getUpdateObject().isEmpty()) continue;
+            try {
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(user.getId())), update, User.class);
+            } catch (DuplicateKeyException e) {
+                // Duplicado heredado (solo difiere en mayúsculas): se deja sin clave para revisión manual
+                System.out.println("User key conflict, left unindexed: " + user.getId() + " (" + user.getUsername() + ")");
+            }
+        }
+    }
+
     private void createSampleUsers() {
         List<User> users = List.of(
             createUser("juan", "juan@example.com", "password123", Role.CLIENTE),
             createUser("maria", "maria@example.com", "password123", Role.CLIENTE),
             createUser("carlos", "carlos@example.com", "password123", Role.CLIENTE)
         );
-        userRepository.saveAll(users);
+        for (User user : users) {
+            try {
+                userRepository.insert(user);
+            } catch (DuplicateKeyException e) {
+                // Ya existe (índice único en username/email)
+            }
+        }
     }
 
     private User createUser(String username, String email, String password, Role role) {
@@ -180,11 +255,18 @@ public class DataInitializer implements CommandLineRunner {
 
     private void initializeOfertas() {
         List<Oferta> ofertas = List.of(
-            new Oferta("Descuento en Accesorios", "20% de descuento en todos los accesorios gaming", 20.0, "/images/oferta-accesorios.jpg"),
-            new Oferta("Oferta en Consolas", "15% off en consolas PlayStation y Xbox", 15.0, "/images/oferta-consolas.jpg"),
-            new Oferta("Promoción Pc Gamers", "10% de descuento en PCs gaming de alto rendimiento", 10.0, "/images/oferta-pcs.jpg")
+            createOferta("Descuento en Accesorios", "20% de descuento en todos los accesorios gaming", 20.0, "/images/oferta-accesorios.jpg", "Accesorios"),
+            createOferta("Oferta en Consolas", "15% off en consolas PlayStation y Xbox", 15.0, "/images/oferta-consolas.jpg", "Consolas"),
+            createOferta("Promoción Pc Gamers", "10% de descuento en PCs gaming de alto rendimiento", 10.0, "/images/oferta-pcs.jpg", "Pc Gamers")
         );
         ofertaRepository.saveAll(ofertas);
+        ofertaService.refresh();
+    }
+
+    private Oferta createOferta(String title, String description, double discount, String imageUrl, String category) {
+        Oferta oferta = new Oferta(title, description, discount, imageUrl);
+        oferta.setCategory(category);
+        return oferta;
     }
 
     private void initializeReviews() {
@@ -0,0 +1,62 @@
+package com.example.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reglas de rate limiting por ruta (prefijo app.rate-limit). Cada regla define un
+ * token bucket por IP (o por usuario si el request viene autenticado).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Buckets llenos e inactivos por más de este tiempo se eliminan
+    private long idleEvictionSeconds = 600;
+
+    // Tope de buckets; al llegar, las claves nuevas comparten un bucket por regla
+    private int maxBuckets = 100_000;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    public static class Rule {
+        private String name;
+        private String method;
+        private String pattern;
+        private int capacity;
+        private double refillPerSecond;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        // null o vacío = cualquier método
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+
+        public String getPattern() { return pattern; }
+        public void setPattern(String pattern) { this.pattern = pattern; }
+
+        public int getCapacity() { return capacity; }
+        public void setCapacity(int capacity) { this.capacity = capacity; }
+
+        public double getRefillPerSecond() { return refillPerSecond; }
+        public void setRefillPerSecond(double refillPerSecond) { this.refillPerSecond = refillPerSecond; }
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getIdleEvictionSeconds() { return idleEvictionSeconds; }
+    public void setIdleEvictionSeconds(long idleEvictionSeconds) { this.idleEvictionSeconds = idleEvictionSeconds; }
+
+    public int getMaxBuckets() { return maxBuckets; }
+    public void setMaxBuckets(int maxBuckets) { this.maxBuckets = maxBuckets; }
+
+    public List<Rule> getRules() { return rules; }
+    public void setRules(List<Rule> rules) { this.rules = rules; }
+}
@@ -3,6 +3,7 @@ package com.example.backend.controller;
 import com.example.backend.dto.AuthRequest;
 import com.example.backend.dto.AuthResponse;
 import com.example.backend.dto.RegisterRequest;
+import com.example.backend.exception.ServiceBusyException;
 import com.example.backend.model.User;
 import com.example.backend.security.JwtUtil;
 import com.example.backend.service.UserService;
@@ -15,8 +16,6 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -26,9 +25,6 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -44,6 +40,9 @@ public class AuthController {
         try {
             User u = userService.register(req.getUsername(), req.getEmail(), req.getPassword());
             return ResponseEntity.ok(u);
+        } catch (ServiceBusyException e) {
+            // Pool de BCrypt saturado: rechazo rápido para no acaparar hilos de Tomcat
+            return ResponseEntity.status(503).header("Retry-After", "1").body(e.getMessage());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -61,21 +60,14 @@ public class AuthController {
                 String loginId = req.getUsername();
 
                 try {
-                        // UserService.findByUsername now handles email lookup first
-                        User user = userService.findByUsername(loginId).orElse(null);
+                        // Una consulta ($or email/username) y verificación BCrypt local, sin AuthenticationManager
+                        User user = userService.authenticate(loginId, req.getPassword()).orElse(null);
                         if (user == null) {
                                 return ResponseEntity.status(401).body("Invalid credentials");
                         }
 
-                        // Use the actual username from the found user for authentication
                         String authUsername = user.getUsername();
 
-                        authenticationManager.authenticate(
-                                new UsernamePasswordAuthenticationToken(authUsername, req.getPassword())
-                        );
-
-                        String token = jwtUtil.generateToken(authUsername);
-
                         // Include roles and email in response
                         java.util.Set<String> roleNames = new java.util.HashSet<>();
                         String userEmail = "";
@@ -84,7 +76,12 @@ public class AuthController {
                         }
                         userEmail = user.getEmail();
 
+                        // Roles firmados en el token para que el filtro no consulte la base en cada request
+                        String token = jwtUtil.generateToken(authUsername, roleNames);
+
                         return ResponseEntity.ok(new AuthResponse(token, authUsername, userEmail, roleNames));
+                } catch (ServiceBusyException e) {
+                        return ResponseEntity.status(503).header("Retry-After", "1").body(e.getMessage());
                 } catch (Exception e) {
                         return ResponseEntity.status(401).body("Invalid credentials");
                 }
@@ -0,0 +1,80 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.OrderFilter;
+import com.example.backend.model.Order;
+import com.example.backend.model.Product;
+import com.example.backend.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+@RestController
+@RequestMapping("/api/v1/export")
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Operation(summary = "Exportar órdenes", security = @SecurityRequirement(name = "bearerAuth"),
+            description = "format=ndjson (por defecto) o csv. Una fila por línea de la orden, por createdAt ascendente. "
+                    + "Filtros opcionales: status, userId, from/to (ISO-8601). Para retomar, cursor = columna cursor "
+                    + "de la última orden recibida completa.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación"),
+            @ApiResponse(responseCode = "400", description = "Formato, cursor o rango de fechas inválido")
+    })
+    @GetMapping("/orders")
+    public void orders(@RequestParam(required = false) String format,
+                       @RequestParam(required = false) String status,
+                       @RequestParam(required = false) String userId,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                       @RequestParam(required = false) String cursor,
+                       HttpServletResponse response) throws IOException {
+        ExportService.Format f = ExportService.parseFormat(format);
+        try (Stream<Order> orders = exportService.openOrders(new OrderFilter(status, userId, from, to), cursor)) {
+            prepare(response, f, "orders");
+            exportService.writeOrders(orders, f, response.getOutputStream());
+        }
+    }
+
+    @Operation(summary = "Exportar productos", security = @SecurityRequirement(name = "bearerAuth"),
+            description = "format=ndjson (por defecto) o csv, por id ascendente; category opcional. "
+                    + "Para retomar, cursor = columna cursor del último producto recibido.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación"),
+            @ApiResponse(responseCode = "400", description = "Formato o cursor inválido")
+    })
+    @GetMapping("/products")
+    public void products(@RequestParam(required = false) String format,
+                         @RequestParam(required = false) String category,
+                         @RequestParam(required = false) String cursor,
+                         HttpServletResponse response) throws IOException {
+        ExportService.Format f = ExportService.parseFormat(format);
+        try (Stream<Product> products = exportService.openProducts(category, cursor)) {
+            prepare(response, f, "products");
+            exportService.writeProducts(products, f, response.getOutputStream());
+        }
+    }
+
+    // Solo después de validar: con el content-type fijado, un error ya no se podría responder como JSON
+    private void prepare(HttpServletResponse response, ExportService.Format format, String name) {
+        boolean csv = format == ExportService.Format.CSV;
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"");
+    }
+}
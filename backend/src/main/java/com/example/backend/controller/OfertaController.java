@@ -28,9 +28,22 @@ public class OfertaController {
         return ResponseEntity.ok(ofertaService.findAll());
     }
 
+    @Operation(summary = "Ofertas vigentes",
+            description = "Ofertas activas en este momento. Con productId y/o category devuelve solo las que aplican "
+                    + "a ese producto o categoría. Se responde desde memoria.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ofertas vigentes")
+    })
+    @GetMapping("/activas")
+    public ResponseEntity<List<Oferta>> active(@RequestParam(required = false) String productId,
+                                               @RequestParam(required = false) String category) {
+        return ResponseEntity.ok(ofertaService.findActive(productId, category));
+    }
+
     @Operation(summary = "Crear oferta")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Oferta creada")
+            @ApiResponse(responseCode = "200", description = "Oferta creada"),
+            @ApiResponse(responseCode = "400", description = "Descuento o vigencia inválidos")
     })
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
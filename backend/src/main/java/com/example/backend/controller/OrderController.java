@@ -1,5 +1,6 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.OrderFilter;
 import com.example.backend.dto.OrderRequest;
 import com.example.backend.model.Order;
 import com.example.backend.model.OrderItem;
@@ -7,13 +8,17 @@ import com.example.backend.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -33,21 +38,55 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
 
-    @Operation(summary = "Listar órdenes del usuario")
+    @Operation(summary = "Listar órdenes del usuario",
+            description = "Sin parámetros devuelve la lista completa. Con status, cursor, limit o fields devuelve una "
+                    + "página { items, nextCursor } de las órdenes propias, más recientes primero. fields=a,b,... elige "
+                    + "los campos (por defecto id, userId, status, createdAt, total, deliveryOption; fields=* para todos).")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de órdenes")
+            @ApiResponse(responseCode = "200", description = "Lista de órdenes"),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido")
     })
     @GetMapping
-    public ResponseEntity<List<Order>> list(Authentication auth) {
+    public ResponseEntity<?> list(@RequestParam(required = false) String status,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit,
+                                  @RequestParam(required = false) String fields,
+                                  Authentication auth,
+                                  HttpServletResponse response) throws IOException {
         String userId = auth.getName();
-        List<Order> orders = orderService.findByUser(userId);
-        // Debug: also return all orders for admin
+        if (status != null || cursor != null || limit != null || fields != null) {
+            return ResponseEntity.ok(orderService.findPageByUser(userId, status, cursor, limit, fields));
+        }
         if (auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
-            List<Order> allOrders = orderService.findAll();
-            System.out.println("DEBUG: Total orders in DB: " + allOrders.size());
-            return ResponseEntity.ok(allOrders);
+            // El panel de administración espera todas las órdenes: se escriben desde el cursor, sin cargarlas
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            orderService.writeAll(response.getOutputStream());
+            return null;
         }
-        return ResponseEntity.ok(orders);
+        // Compatibilidad con el frontend actual, que espera el arreglo completo
+        return ResponseEntity.ok(orderService.findByUser(userId));
+    }
+
+    @Operation(summary = "Listar órdenes (admin)",
+            description = "Página { items, nextCursor } de todas las órdenes, más recientes primero. Filtros opcionales: "
+                    + "status, userId y rango from/to (ISO-8601) sobre createdAt. limit por defecto 100, máximo 1000. "
+                    + "fields como en el listado de órdenes (por defecto el resumen, sin items ni envío).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de órdenes"),
+            @ApiResponse(responseCode = "400", description = "Cursor o rango de fechas inválido")
+    })
+    @GetMapping("/admin")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void listAdmin(@RequestParam(required = false) String status,
+                          @RequestParam(required = false) String userId,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                          @RequestParam(required = false) String cursor,
+                          @RequestParam(required = false) Integer limit,
+                          @RequestParam(required = false) String fields,
+                          HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        orderService.writeAdminPage(new OrderFilter(status, userId, from, to), cursor, limit, fields, response.getOutputStream());
     }
 
     @Operation(summary = "Obtener orden por id")
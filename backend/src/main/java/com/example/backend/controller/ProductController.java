@@ -1,6 +1,11 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.CategoryFacet;
+import com.example.backend.dto.IdsRequest;
+import com.example.backend.dto.ImportReport;
+import com.example.backend.dto.ProductDetail;
 import com.example.backend.model.Product;
+import com.example.backend.service.ProductImportService;
 import com.example.backend.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,14 +14,17 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
-import java.util.List;
+import java.math.BigDecimal;
 
 @RestController
 @RequestMapping("/api/v1/productos")
@@ -25,23 +33,64 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
-    @Operation(summary = "Listar productos")
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Operation(summary = "Listar productos",
+            description = "Sin parámetros devuelve el catálogo completo. Con category, minPrice, maxPrice, sort "
+                    + "(id, price_asc, price_desc), cursor, limit o fields devuelve una página { items, nextCursor }. "
+                    + "fields=name,price,... elige los campos de cada item (por defecto id, name, price, stock, image, "
+                    + "category; fields=* para todos).")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de productos")
+            @ApiResponse(responseCode = "200", description = "Lista de productos"),
+            @ApiResponse(responseCode = "400", description = "Cursor u orden inválido")
     })
     @GetMapping
-    public ResponseEntity<List<Product>> list() {
-        return ResponseEntity.ok(productService.findAll());
+    public ResponseEntity<?> list(@RequestParam(required = false) String category,
+                                  @RequestParam(required = false) BigDecimal minPrice,
+                                  @RequestParam(required = false) BigDecimal maxPrice,
+                                  @RequestParam(required = false) String sort,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit,
+                                  @RequestParam(required = false) String fields) {
+        boolean paged = category != null || minPrice != null || maxPrice != null
+                || sort != null || cursor != null || limit != null || fields != null;
+        if (!paged) {
+            // Compatibilidad con el frontend actual, que espera el arreglo completo
+            return ResponseEntity.ok(productService.findAll());
+        }
+        return ResponseEntity.ok(productService.findPage(category, minPrice, maxPrice, sort, cursor, limit, fields));
     }
 
-    @Operation(summary = "Obtener producto por id")
+    @Operation(summary = "Facetas por categoría",
+            description = "Por categoría: cantidad de productos, cuántos tienen stock y precio mínimo y máximo.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Facetas ordenadas por categoría")
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<List<CategoryFacet>> facets() {
+        return ResponseEntity.ok(productService.getFacets());
+    }
+
+    @Operation(summary = "Obtener producto por id", description = "Incluye el resumen de valoraciones en \"rating\".")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Producto encontrado",
-                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = Product.class)))
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductDetail.class)))
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Product> get(@PathVariable String id) {
-        return ResponseEntity.ok(productService.getById(id));
+    public ResponseEntity<ProductDetail> get(@PathVariable String id) {
+        return ResponseEntity.ok(productService.getDetail(id));
+    }
+
+    @Operation(summary = "Obtener varios productos",
+            description = "Body { \"ids\": [...] } (máximo 100). Devuelve los productos encontrados, en el orden pedido, con su \"rating\".")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos encontrados"),
+            @ApiResponse(responseCode = "400", description = "Sin ids o más de 100")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductDetail>> batch(@RequestBody IdsRequest request) {
+        return ResponseEntity.ok(productService.getDetails(request.getIds()));
     }
 
     @Operation(summary = "Crear producto", security = @SecurityRequirement(name = "bearerAuth"))
@@ -56,6 +105,22 @@ public class ProductController {
         return ResponseEntity.ok(productService.create(p));
     }
 
+    @Operation(summary = "Importar productos", security = @SecurityRequirement(name = "bearerAuth"),
+            description = "El body es el archivo: arreglo JSON, NDJSON o CSV con encabezado (Content-Type text/csv o "
+                    + "format=csv). Columnas: id, name, price, description, stock, imageUrl, category, weightGrams; "
+                    + "name y price obligatorios. Con id actualiza (o crea) ese producto, sin id crea uno nuevo.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reporte con contadores y errores por fila"),
+            @ApiResponse(responseCode = "400", description = "Formato o encabezado CSV inválido")
+    })
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportReport> importProducts(@RequestParam(required = false) String format,
+                                                       HttpServletRequest request) throws IOException {
+        ProductImportService.Format f = ProductImportService.parseFormat(format, request.getContentType());
+        return ResponseEntity.ok(productImportService.importProducts(request.getInputStream(), f));
+    }
+
     @Operation(summary = "Actualizar producto", security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Producto actualizado")
@@ -1,6 +1,11 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.IdsRequest;
+import com.example.backend.dto.ProductReviews;
+import com.example.backend.model.RatingSummary;
 import com.example.backend.model.Review;
+import com.example.backend.service.RatingSummaryService;
 import com.example.backend.service.ReviewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -19,6 +24,9 @@ public class ReviewController {
     @Autowired
     private ReviewService reviewService;
 
+    @Autowired
+    private RatingSummaryService ratingSummaryService;
+
     @Operation(summary = "Listar reviews")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de reviews")
@@ -28,22 +36,54 @@ public class ReviewController {
         return ResponseEntity.ok(reviewService.findAll());
     }
 
-    @Operation(summary = "Obtener reviews por producto")
+    @Operation(summary = "Obtener reviews por producto",
+            description = "Página { items, nextCursor } con las reviews más recientes primero. "
+                    + "Filtro opcional rating (1 a 5); limit por defecto 20, máximo 100.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Reviews del producto")
+            @ApiResponse(responseCode = "200", description = "Reviews del producto"),
+            @ApiResponse(responseCode = "400", description = "Cursor o rating inválido")
     })
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<Review>> getByProductId(@PathVariable String productId) {
-        return ResponseEntity.ok(reviewService.findByProductId(productId));
+    public ResponseEntity<CursorPage<Review>> getByProductId(@PathVariable String productId,
+                                                             @RequestParam(required = false) Integer rating,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(reviewService.findPageByProduct(productId, rating, cursor, limit));
+    }
+
+    @Operation(summary = "Resumen de valoraciones de un producto",
+            description = "Cantidad, promedio e histograma de 1 a 5 estrellas, mantenidos al crear o borrar reviews.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resumen del producto")
+    })
+    @GetMapping("/product/{productId}/summary")
+    public ResponseEntity<RatingSummary> getSummary(@PathVariable String productId) {
+        return ResponseEntity.ok(ratingSummaryService.get(productId));
+    }
+
+    @Operation(summary = "Reviews de varios productos",
+            description = "Body { \"ids\": [...] } (máximo 100). Por producto devuelve el resumen de valoraciones "
+                    + "y las perProduct reviews más recientes (por defecto 3, máximo 20).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Reviews por producto, en el orden pedido"),
+            @ApiResponse(responseCode = "400", description = "Sin ids o más de 100")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductReviews>> batch(@RequestBody IdsRequest request,
+                                                      @RequestParam(required = false) Integer perProduct) {
+        return ResponseEntity.ok(reviewService.findLatestByProducts(request.getIds(), perProduct));
     }
 
-    @Operation(summary = "Crear review")
+    @Operation(summary = "Crear review",
+            description = "La review se encola y se guarda en el siguiente lote (milisegundos); la respuesta ya incluye su id.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Review creada")
+            @ApiResponse(responseCode = "202", description = "Review aceptada"),
+            @ApiResponse(responseCode = "400", description = "Valoración fuera de 1 a 5 o sin producto"),
+            @ApiResponse(responseCode = "503", description = "Cola de reviews llena, reintentar")
     })
     @PostMapping
     public ResponseEntity<Review> create(@RequestBody Review review) {
-        return ResponseEntity.ok(reviewService.create(review));
+        return ResponseEntity.accepted().body(reviewService.submit(review));
     }
 
     @DeleteMapping("/{id}")
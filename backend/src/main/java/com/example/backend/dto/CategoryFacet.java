@@ -0,0 +1,39 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+
+/** Conteos y rango de precios de una categoría del catálogo. */
+public class CategoryFacet {
+    private String category;
+    private long count;
+    private long inStock;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    public CategoryFacet() {}
+
+    public CategoryFacet(String category, long count, long inStock, BigDecimal minPrice, BigDecimal maxPrice) {
+        this.category = category;
+        this.count = count;
+        this.inStock = inStock;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    // Productos con stock > 0
+    public long getInStock() { return inStock; }
+    public void setInStock(long inStock) { this.inStock = inStock; }
+
+    // null si ningún producto de la categoría tiene precio
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+}
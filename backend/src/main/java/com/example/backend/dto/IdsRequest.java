@@ -0,0 +1,16 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class IdsRequest {
+    private List<String> ids;
+
+    public IdsRequest() {}
+
+    public IdsRequest(List<String> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getIds() { return ids; }
+    public void setIds(List<String> ids) { this.ids = ids; }
+}
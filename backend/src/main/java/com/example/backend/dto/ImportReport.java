@@ -0,0 +1,59 @@
+package com.example.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Resultado de una importación masiva: contadores y errores por fila (acotados). */
+public class ImportReport {
+
+    public static class RowError {
+        private long row;
+        private String id;
+        private String error;
+
+        public RowError() {}
+
+        public RowError(long row, String id, String error) {
+            this.row = row;
+            this.id = id;
+            this.error = error;
+        }
+
+        // Número de fila de datos, desde 1 (sin contar el encabezado CSV)
+        public long getRow() { return row; }
+        public void setRow(long row) { this.row = row; }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+
+    private long received;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    public long getReceived() { return received; }
+    public void setReceived(long received) { this.received = received; }
+
+    public long getInserted() { return inserted; }
+    public void setInserted(long inserted) { this.inserted = inserted; }
+
+    // Productos existentes que coincidieron por id (con o sin cambios)
+    public long getUpdated() { return updated; }
+    public void setUpdated(long updated) { this.updated = updated; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    // true si hubo más errores que los incluidos en errors
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+}
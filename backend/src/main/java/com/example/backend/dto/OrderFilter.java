@@ -0,0 +1,34 @@
+package com.example.backend.dto;
+
+import java.time.Instant;
+
+/** Filtros del listado de órdenes para administración; todos opcionales. */
+public class OrderFilter {
+    private String status;
+    private String userId;
+    private Instant from;
+    private Instant to;
+
+    public OrderFilter() {}
+
+    public OrderFilter(String status, String userId, Instant from, Instant to) {
+        this.status = status;
+        this.userId = userId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    // createdAt >= from
+    public Instant getFrom() { return from; }
+    public void setFrom(Instant from) { this.from = from; }
+
+    // createdAt < to
+    public Instant getTo() { return to; }
+    public void setTo(Instant to) { this.to = to; }
+}
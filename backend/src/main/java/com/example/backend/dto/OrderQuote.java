@@ -0,0 +1,80 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+/**
+ * Precio de un carrito calculado en el servidor. Todos los montos están en centavos
+ * (long) para no acumular errores de redondeo; toPesos() los convierte para Order.
+ */
+public class OrderQuote {
+
+    public static class Line {
+        private final String productId;
+        private final String name;
+        private final String image;
+        private final int quantity;
+        private final long listUnitCents;
+        private final long offerUnitCents;
+        private final long unitCents;
+        private final long lineCents;
+        private final String offerId;
+
+        public Line(String productId, String name, String image, int quantity, long listUnitCents,
+                    long offerUnitCents, long unitCents, long lineCents, String offerId) {
+            this.productId = productId;
+            this.name = name;
+            this.image = image;
+            this.quantity = quantity;
+            this.listUnitCents = listUnitCents;
+            this.offerUnitCents = offerUnitCents;
+            this.unitCents = unitCents;
+            this.lineCents = lineCents;
+            this.offerId = offerId;
+        }
+
+        public String getProductId() { return productId; }
+        public String getName() { return name; }
+        public String getImage() { return image; }
+        public int getQuantity() { return quantity; }
+        // Precio de lista del producto
+        public long getListUnitCents() { return listUnitCents; }
+        // Con la mejor oferta vigente, antes del descuento Duoc
+        public long getOfferUnitCents() { return offerUnitCents; }
+        // Precio final por unidad
+        public long getUnitCents() { return unitCents; }
+        public long getLineCents() { return lineCents; }
+        public String getOfferId() { return offerId; }
+    }
+
+    private final List<Line> lines;
+    private final boolean duoc;
+    private final long subtotalCents;
+    private final long descuentoDuocCents;
+    private final long ivaCents;
+    private final long shippingCents;
+    private final long totalCents;
+
+    public OrderQuote(List<Line> lines, boolean duoc, long subtotalCents, long descuentoDuocCents,
+                      long ivaCents, long shippingCents, long totalCents) {
+        this.lines = lines;
+        this.duoc = duoc;
+        this.subtotalCents = subtotalCents;
+        this.descuentoDuocCents = descuentoDuocCents;
+        this.ivaCents = ivaCents;
+        this.shippingCents = shippingCents;
+        this.totalCents = totalCents;
+    }
+
+    public static double toPesos(long cents) {
+        return cents / 100.0;
+    }
+
+    public List<Line> getLines() { return lines; }
+    public boolean isDuoc() { return duoc; }
+    // Suma de líneas con todos los descuentos (igual que el subtotal del checkout)
+    public long getSubtotalCents() { return subtotalCents; }
+    public long getDescuentoDuocCents() { return descuentoDuocCents; }
+    public long getIvaCents() { return ivaCents; }
+    public long getShippingCents() { return shippingCents; }
+    public long getTotalCents() { return totalCents; }
+}
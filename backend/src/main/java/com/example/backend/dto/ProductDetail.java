@@ -0,0 +1,30 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.Product;
+import com.example.backend.model.RatingSummary;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * Producto con su resumen de valoraciones. Los campos del producto se serializan al
+ * mismo nivel, así el JSON sigue siendo el de Product más "rating".
+ */
+public class ProductDetail {
+
+    @JsonUnwrapped
+    private Product product;
+
+    private RatingSummary rating;
+
+    public ProductDetail() {}
+
+    public ProductDetail(Product product, RatingSummary rating) {
+        this.product = product;
+        this.rating = rating;
+    }
+
+    public Product getProduct() { return product; }
+    public void setProduct(Product product) { this.product = product; }
+
+    public RatingSummary getRating() { return rating; }
+    public void setRating(RatingSummary rating) { this.rating = rating; }
+}
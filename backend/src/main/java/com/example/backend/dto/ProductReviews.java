@@ -0,0 +1,30 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.RatingSummary;
+import com.example.backend.model.Review;
+
+import java.util.List;
+
+/** Resumen de valoraciones y últimas reviews de un producto (lectura por lotes). */
+public class ProductReviews {
+    private String productId;
+    private RatingSummary rating;
+    private List<Review> latest;
+
+    public ProductReviews() {}
+
+    public ProductReviews(String productId, RatingSummary rating, List<Review> latest) {
+        this.productId = productId;
+        this.rating = rating;
+        this.latest = latest;
+    }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public RatingSummary getRating() { return rating; }
+    public void setRating(RatingSummary rating) { this.rating = rating; }
+
+    public List<Review> getLatest() { return latest; }
+    public void setLatest(List<Review> latest) { this.latest = latest; }
+}
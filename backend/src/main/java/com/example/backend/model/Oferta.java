@@ -3,6 +3,8 @@ package com.example.backend.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Document(collection = "ofertas")
 public class Oferta {
 
@@ -14,6 +16,15 @@ public class Oferta {
     private double discountPercentage;
     private String imageUrl;
 
+    // Vigencia [startsAt, endsAt); null = sin límite por ese lado
+    private Instant startsAt;
+    private Instant endsAt;
+
+    // Alcance del descuento: un producto o una categoría. Sin ninguno es solo un banner
+    // y no modifica precios.
+    private String productId;
+    private String category;
+
     public Oferta() {}
 
     public Oferta(String title, String description, double discountPercentage, String imageUrl) {
@@ -63,4 +74,40 @@ public class Oferta {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public Instant getStartsAt() {
+        return startsAt;
+    }
+
+    public void setStartsAt(Instant startsAt) {
+        this.startsAt = startsAt;
+    }
+
+    public Instant getEndsAt() {
+        return endsAt;
+    }
+
+    public void setEndsAt(Instant endsAt) {
+        this.endsAt = endsAt;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public boolean isActiveAt(Instant t) {
+        return (startsAt == null || !t.isBefore(startsAt)) && (endsAt == null || t.isBefore(endsAt));
+    }
 }
\ No newline at end of file
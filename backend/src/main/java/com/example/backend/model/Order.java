@@ -1,6 +1,8 @@
 package com.example.backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -8,6 +10,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "orders")
+@CompoundIndexes({
+        @CompoundIndex(name = "userId_createdAt_id", def = "{ 'userId': 1, 'createdAt': -1, '_id': -1 }"),
+        @CompoundIndex(name = "userId_status_createdAt_id", def = "{ 'userId': 1, 'status': 1, 'createdAt': -1, '_id': -1 }"),
+        @CompoundIndex(name = "createdAt_id", def = "{ 'createdAt': -1, '_id': -1 }"),
+        @CompoundIndex(name = "status_createdAt_id", def = "{ 'status': 1, 'createdAt': -1, '_id': -1 }")
+})
 public class Order {
 
     @Id
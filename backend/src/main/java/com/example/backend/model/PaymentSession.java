@@ -1,13 +1,34 @@
 package com.example.backend.model;
 
 import com.example.backend.dto.OrderRequest;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
 import java.time.Instant;
+import java.util.List;
 
+/**
+ * Sesión de pago Webpay. Guarda solo lo necesario para crear la orden al confirmar:
+ * los datos de tarjeta del OrderRequest (número, CVV, etc.) no se retienen.
+ */
+@Document(collection = "payment_sessions")
 public class PaymentSession {
+    @Id
     private String token;
     private String userId;
-    private OrderRequest orderRequest;
+    private List<OrderItem> items;
+    private ShippingInfo shippingInfo;
+    private String deliveryOption;
+    private double subtotal;
+    private double descuentoDuoc;
+    private double iva;
+    private double shippingCost;
+    private double total;
     private Instant createdAt;
+
+    // TTL: con el store "mongo" la base elimina la sesión al vencer
+    @Indexed(name = "expiresAt_ttl", expireAfterSeconds = 0)
     private Instant expiresAt;
 
     public PaymentSession() {}
@@ -15,9 +36,30 @@ public class PaymentSession {
     public PaymentSession(String token, String userId, OrderRequest orderRequest) {
         this.token = token;
         this.userId = userId;
-        this.orderRequest = orderRequest;
+        this.items = orderRequest.getItems();
+        this.shippingInfo = orderRequest.getShippingInfo();
+        this.deliveryOption = orderRequest.getDeliveryOption();
+        this.subtotal = orderRequest.getSubtotal();
+        this.descuentoDuoc = orderRequest.getDescuentoDuoc();
+        this.iva = orderRequest.getIva();
+        this.shippingCost = orderRequest.getShippingCost();
+        this.total = orderRequest.getTotal();
         this.createdAt = Instant.now();
-        this.expiresAt = Instant.now().plusSeconds(300); // 5 minutos
+        this.expiresAt = createdAt.plusSeconds(300); // 5 minutos
+    }
+
+    // Reconstruye el pedido (sin datos de tarjeta) para OrderService
+    public OrderRequest toOrderRequest() {
+        OrderRequest req = new OrderRequest();
+        req.setItems(items);
+        req.setShippingInfo(shippingInfo);
+        req.setDeliveryOption(deliveryOption);
+        req.setSubtotal(subtotal);
+        req.setDescuentoDuoc(descuentoDuoc);
+        req.setIva(iva);
+        req.setShippingCost(shippingCost);
+        req.setTotal(total);
+        return req;
     }
 
     // Getters and setters
@@ -27,8 +69,29 @@ public class PaymentSession {
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
 
-    public OrderRequest getOrderRequest() { return orderRequest; }
-    public void setOrderRequest(OrderRequest orderRequest) { this.orderRequest = orderRequest; }
+    public List<OrderItem> getItems() { return items; }
+    public void setItems(List<OrderItem> items) { this.items = items; }
+
+    public ShippingInfo getShippingInfo() { return shippingInfo; }
+    public void setShippingInfo(ShippingInfo shippingInfo) { this.shippingInfo = shippingInfo; }
+
+    public String getDeliveryOption() { return deliveryOption; }
+    public void setDeliveryOption(String deliveryOption) { this.deliveryOption = deliveryOption; }
+
+    public double getSubtotal() { return subtotal; }
+    public void setSubtotal(double subtotal) { this.subtotal = subtotal; }
+
+    public double getDescuentoDuoc() { return descuentoDuoc; }
+    public void setDescuentoDuoc(double descuentoDuoc) { this.descuentoDuoc = descuentoDuoc; }
+
+    public double getIva() { return iva; }
+    public void setIva(double iva) { this.iva = iva; }
+
+    public double getShippingCost() { return shippingCost; }
+    public void setShippingCost(double shippingCost) { this.shippingCost = shippingCost; }
+
+    public double getTotal() { return total; }
+    public void setTotal(double total) { this.total = total; }
 
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
@@ -39,4 +102,4 @@ public class PaymentSession {
     public boolean isExpired() {
         return Instant.now().isAfter(expiresAt);
     }
-}
\ No newline at end of file
+}
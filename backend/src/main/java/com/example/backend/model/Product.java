@@ -1,12 +1,23 @@
 package com.example.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Document(collection = "products")
+@CompoundIndexes({
+        @CompoundIndex(name = "category_price_id", def = "{ 'category': 1, 'price': 1, '_id': 1 }"),
+        @CompoundIndex(name = "category_id", def = "{ 'category': 1, '_id': 1 }"),
+        @CompoundIndex(name = "price_id", def = "{ 'price': 1, '_id': 1 }")
+})
 public class Product {
 
     @Id
@@ -14,11 +25,22 @@ public class Product {
 
     private String name;
     private String description;
+
+    // Decimal128 para que los rangos y el orden por precio sean numéricos (no de String)
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal price;
     private Integer stock;
     private String imageUrl;
     private String category;
 
+    // Peso por unidad para el cálculo de envío; null = peso por defecto de la tabla de envíos
+    private Integer weightGrams;
+
+    // Ids de descuentos de stock en curso; InventoryService los usa para compensar. Se
+    // mapea aquí para que un save() del producto completo no los borre a mitad de operación.
+    @JsonIgnore
+    private List<String> stockOps;
+
     public Product() {}
 
     public Product(String name, String description, BigDecimal price, Integer stock, String imageUrl, String category) {
@@ -86,6 +108,14 @@ public class Product {
         this.category = category;
     }
 
+    public Integer getWeightGrams() {
+        return weightGrams;
+    }
+
+    public void setWeightGrams(Integer weightGrams) {
+        this.weightGrams = weightGrams;
+    }
+
     // Expose 'image' JSON property as alias for imageUrl so frontend can use product.image
     @JsonProperty("image")
     public String getImage() {
@@ -0,0 +1,58 @@
+package com.example.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resumen de valoraciones de un producto, mantenido con $inc al crear o borrar reviews.
+ * El histograma usa las claves "1".."5" (estrellas).
+ */
+@Document(collection = "product_ratings")
+public class RatingSummary {
+
+    @Id
+    private String productId;
+
+    private long count;
+    private long sum;
+    private Map<String, Long> histogram = new LinkedHashMap<>();
+
+    public RatingSummary() {}
+
+    public static RatingSummary empty(String productId) {
+        RatingSummary summary = new RatingSummary();
+        summary.productId = productId;
+        summary.fillHistogram();
+        return summary;
+    }
+
+    // Completa las estrellas sin votos para que el JSON tenga siempre las 5 claves
+    public RatingSummary fillHistogram() {
+        Map<String, Long> full = new LinkedHashMap<>();
+        for (int stars = 1; stars <= 5; stars++) {
+            String key = String.valueOf(stars);
+            full.put(key, histogram == null ? 0L : histogram.getOrDefault(key, 0L));
+        }
+        this.histogram = full;
+        return this;
+    }
+
+    public double getAverage() {
+        return count > 0 ? (double) sum / count : 0.0;
+    }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+
+    public long getSum() { return sum; }
+    public void setSum(long sum) { this.sum = sum; }
+
+    public Map<String, Long> getHistogram() { return histogram; }
+    public void setHistogram(Map<String, Long> histogram) { this.histogram = histogram; }
+}
@@ -1,11 +1,17 @@
 package com.example.backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document(collection = "reviews")
+@CompoundIndexes({
+        @CompoundIndex(name = "productId_date_id", def = "{ 'productId': 1, 'date': -1, '_id': -1 }"),
+        @CompoundIndex(name = "productId_rating_date_id", def = "{ 'productId': 1, 'rating': 1, 'date': -1, '_id': -1 }")
+})
 public class Review {
 
     @Id
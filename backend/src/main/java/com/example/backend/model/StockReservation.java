@@ -0,0 +1,57 @@
+package com.example.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Document(collection = "stock_reservations")
+@CompoundIndex(name = "status_expiresAt", def = "{ 'status': 1, 'expiresAt': 1 }")
+public class StockReservation {
+
+    public static final String HELD = "HELD";
+    public static final String COMMITTED = "COMMITTED";
+    public static final String RELEASED = "RELEASED";
+
+    // Mismo valor que el token de la sesión de pago
+    @Id
+    private String id;
+
+    private String userId;
+    private List<OrderItem> items = new ArrayList<>();
+    private String status;
+    private Instant createdAt = Instant.now();
+    private Instant expiresAt;
+
+    public StockReservation() {}
+
+    public StockReservation(String id, String userId, List<OrderItem> items, Instant expiresAt) {
+        this.id = id;
+        this.userId = userId;
+        this.items = items;
+        this.expiresAt = expiresAt;
+        this.status = HELD;
+    }
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public List<OrderItem> getItems() { return items; }
+    public void setItems(List<OrderItem> items) { this.items = items; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -1,9 +1,12 @@
 package com.example.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Document(collection = "users")
@@ -12,8 +15,23 @@ public class User {
     @Id
     private String id;
 
+    @Indexed
     private String username;
+
+    @Indexed
     private String email;
+
+    // Claves normalizadas (minúsculas) con índice único: la base rechaza duplicados
+    // que solo difieren en mayúsculas. Sparse para convivir con documentos antiguos
+    // mientras DataInitializer las completa.
+    @JsonIgnore
+    @Indexed(name = "username_key_unique", unique = true, sparse = true)
+    private String usernameKey;
+
+    @JsonIgnore
+    @Indexed(name = "email_key_unique", unique = true, sparse = true)
+    private String emailKey;
+
     private String password;
 
     private Set<Role> roles = new HashSet<>();
@@ -21,11 +39,15 @@ public class User {
     public User() {}
 
     public User(String username, String email, String password) {
-        this.username = username;
-        this.email = email;
+        setUsername(username);
+        setEmail(email);
         this.password = password;
     }
 
+    public static String normalizeKey(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
     public String getId() {
         return id;
     }
@@ -40,6 +62,7 @@ public class User {
 
     public void setUsername(String username) {
         this.username = username;
+        this.usernameKey = normalizeKey(username);
     }
 
     public String getEmail() {
@@ -48,6 +71,15 @@ public class User {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailKey = normalizeKey(email);
+    }
+
+    public String getUsernameKey() {
+        return usernameKey;
+    }
+
+    public String getEmailKey() {
+        return emailKey;
     }
 
     public String getPassword() {
@@ -0,0 +1,56 @@
+package com.example.backend.repository;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utilidades para paginación por cursor (keyset) con _id como desempate.
+ *
+ * Los _id de la base son mixtos: los datos iniciales usan String ("1", "2", ...)
+ * y los documentos creados desde la API usan ObjectId. BSON ordena todos los
+ * String antes que los ObjectId, así que "después de X" tiene que cruzar de tipo.
+ */
+public final class KeysetSupport {
+
+    private static final int BSON_STRING = 2;
+    private static final int BSON_OBJECT_ID = 7;
+    private static final String SEPARATOR = "|";
+
+    private KeysetSupport() {}
+
+    public static Criteria idAfter(String lastId, boolean ascending) {
+        if (ObjectId.isValid(lastId)) {
+            ObjectId oid = new ObjectId(lastId);
+            return ascending
+                    ? Criteria.where("_id").gt(oid)
+                    : new Criteria().orOperator(Criteria.where("_id").lt(oid), Criteria.where("_id").type(BSON_STRING));
+        }
+        return ascending
+                ? new Criteria().orOperator(Criteria.where("_id").gt(lastId), Criteria.where("_id").type(BSON_OBJECT_ID))
+                : Criteria.where("_id").lt(lastId);
+    }
+
+    /** Codifica la clave de orden y el id en un cursor opaco para el cliente. */
+    public static String encode(String sortKey, String id) {
+        String raw = (sortKey == null ? "" : sortKey) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Devuelve {sortKey, id}; sortKey es null si el cursor se generó con una clave nula. */
+    public static String[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            if (sep < 0 || sep == raw.length() - 1) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            String sortKey = raw.substring(0, sep);
+            return new String[] { sortKey.isEmpty() ? null : sortKey, raw.substring(sep + 1) };
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
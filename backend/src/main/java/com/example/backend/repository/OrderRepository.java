@@ -7,6 +7,8 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends MongoRepository<Order, String> {
-    List<Order> findByUserId(String userId);
+public interface OrderRepository extends MongoRepository<Order, String>, OrderRepositoryCustom {
+
+    // Sin paginar (compatibilidad); usa el índice userId_createdAt_id
+    List<Order> findByUserIdOrderByCreatedAtDesc(String userId);
 }
@@ -0,0 +1,26 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.OrderFilter;
+import com.example.backend.model.Order;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+public interface OrderRepositoryCustom {
+
+    // Órdenes de un usuario, más recientes primero; status opcional. fields: campos de Mongo
+    // a proyectar (null = documento completo)
+    CursorPage<Order> findPageByUser(String userId, String status, String cursor, int limit, Collection<String> fields);
+
+    // Órdenes filtradas por createdAt y _id (descendente: más recientes primero), leídas con un
+    // cursor de Mongo; hay que cerrar el Stream. limit null = sin límite; si no, devuelve hasta
+    // limit+1 para saber si hay otra página
+    Stream<Order> streamFiltered(OrderFilter filter, String cursor, Integer limit, boolean ascending, Collection<String> fields);
+
+    // Cursor de paginación que continúa después de esta orden
+    static String cursorOf(Order order) {
+        String sortKey = order.getCreatedAt() == null ? null : String.valueOf(order.getCreatedAt().toEpochMilli());
+        return KeysetSupport.encode(sortKey, order.getId());
+    }
+}
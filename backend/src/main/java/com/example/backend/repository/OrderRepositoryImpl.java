@@ -0,0 +1,128 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.OrderFilter;
+import com.example.backend.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public CursorPage<Order> findPageByUser(String userId, String status, String cursor, int limit, Collection<String> fields) {
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("userId").is(userId));
+        if (status != null) {
+            filters.add(statusCriteria(status));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            filters.add(after(KeysetSupport.decode(cursor), false));
+        }
+
+        // Usa userId_createdAt_id o userId_status_createdAt_id: cada página lee solo limit+1 entradas
+        Query query = new Query(new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(limit + 1);
+        project(query, fields);
+
+        List<Order> rows = mongoTemplate.find(query, Order.class);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Order> page = new ArrayList<>(rows.subList(0, limit));
+        return new CursorPage<>(page, OrderRepositoryCustom.cursorOf(page.get(limit - 1)));
+    }
+
+    @Override
+    public Stream<Order> streamFiltered(OrderFilter filter, String cursor, Integer limit, boolean ascending, Collection<String> fields) {
+        List<Criteria> filters = new ArrayList<>();
+        if (filter.getUserId() != null) {
+            filters.add(Criteria.where("userId").is(filter.getUserId()));
+        }
+        if (filter.getStatus() != null) {
+            filters.add(statusCriteria(filter.getStatus()));
+        }
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            Criteria range = Criteria.where("createdAt");
+            if (filter.getFrom() != null) {
+                range = range.gte(filter.getFrom());
+            }
+            if (filter.getTo() != null) {
+                range = range.lt(filter.getTo());
+            }
+            filters.add(range);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            filters.add(after(KeysetSupport.decode(cursor), ascending));
+        }
+
+        // Usa createdAt_id, status_createdAt_id o los índices por userId según el filtro (en ambos sentidos)
+        Query query = (filters.isEmpty() ? new Query() : new Query(new Criteria().andOperator(filters)))
+                .with(Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, "createdAt", "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        if (limit != null) {
+            query.limit(limit + 1);
+        }
+        project(query, fields);
+        return mongoTemplate.stream(query, Order.class);
+    }
+
+    // Los estados guardados no tienen un formato único ("completed" de los datos de ejemplo,
+    // "COMPLETED" de checkout, lo que mande el admin): se comparan sin mayúsculas con un $in de
+    // las variantes, que sigue usando los índices con status (un regex /i no los aprovecha)
+    private Criteria statusCriteria(String status) {
+        Set<String> variants = new LinkedHashSet<>();
+        variants.add(status);
+        variants.add(status.toLowerCase(Locale.ROOT));
+        variants.add(status.toUpperCase(Locale.ROOT));
+        variants.add(status.substring(0, 1).toUpperCase(Locale.ROOT) + status.substring(1).toLowerCase(Locale.ROOT));
+        return Criteria.where("status").in(variants);
+    }
+
+    private void project(Query query, Collection<String> fields) {
+        if (fields != null) {
+            // createdAt hace falta para armar el cursor aunque no se haya pedido
+            query.fields().include(fields.toArray(String[]::new)).include("createdAt");
+        }
+    }
+
+    private Criteria after(String[] cursor, boolean ascending) {
+        String lastCreatedAt = cursor[0];
+        String lastId = cursor[1];
+        // Las fechas nulas van antes que cualquier fecha en el orden de BSON
+        if (lastCreatedAt == null) {
+            Criteria sameDate = new Criteria().andOperator(Criteria.where("createdAt").is(null), KeysetSupport.idAfter(lastId, ascending));
+            return ascending
+                    ? new Criteria().orOperator(sameDate, Criteria.where("createdAt").ne(null))
+                    : sameDate;
+        }
+        Instant createdAt;
+        try {
+            createdAt = Instant.ofEpochMilli(Long.parseLong(lastCreatedAt));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        Criteria beyond = ascending ? Criteria.where("createdAt").gt(createdAt) : Criteria.where("createdAt").lt(createdAt);
+        Criteria sameDate = new Criteria().andOperator(Criteria.where("createdAt").is(createdAt), KeysetSupport.idAfter(lastId, ascending));
+        return ascending
+                ? new Criteria().orOperator(beyond, sameDate)
+                : new Criteria().orOperator(beyond, sameDate, Criteria.where("createdAt").is(null));
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.model.Product;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+public interface ProductRepositoryCustom {
+
+    enum PageSort { ID, PRICE_ASC, PRICE_DESC }
+
+    // fields: campos de Mongo a proyectar (null = documento completo)
+    CursorPage<Product> findPage(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                 PageSort sort, String cursor, int limit, Collection<String> fields);
+
+    // Todos los productos por _id ascendente desde un cursor de Mongo (exportación); hay que cerrar el Stream
+    Stream<Product> streamAll(String category, String cursor);
+}
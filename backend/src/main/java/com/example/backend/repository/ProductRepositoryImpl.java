@@ -0,0 +1,118 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.model.Product;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public CursorPage<Product> findPage(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                        PageSort sort, String cursor, int limit, Collection<String> fields) {
+        List<Criteria> filters = new ArrayList<>();
+        if (category != null && !category.isBlank()) {
+            filters.add(Criteria.where("category").is(category));
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) {
+                price.gte(new Decimal128(minPrice));
+            }
+            if (maxPrice != null) {
+                price.lte(new Decimal128(maxPrice));
+            }
+            filters.add(price);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            filters.add(after(sort, KeysetSupport.decode(cursor)));
+        }
+
+        Query query = new Query();
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters));
+        }
+        query.with(sortOf(sort)).limit(limit + 1);
+        if (fields != null) {
+            // El precio hace falta para armar el cursor aunque no se haya pedido
+            query.fields().include(fields.toArray(String[]::new));
+            if (sort != PageSort.ID) {
+                query.fields().include("price");
+            }
+        }
+
+        List<Product> rows = mongoTemplate.find(query, Product.class);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Product> page = new ArrayList<>(rows.subList(0, limit));
+        Product last = page.get(limit - 1);
+        String sortKey = sort == PageSort.ID || last.getPrice() == null ? null : last.getPrice().toPlainString();
+        return new CursorPage<>(page, KeysetSupport.encode(sortKey, last.getId()));
+    }
+
+    @Override
+    public Stream<Product> streamAll(String category, String cursor) {
+        List<Criteria> filters = new ArrayList<>();
+        if (category != null && !category.isBlank()) {
+            filters.add(Criteria.where("category").is(category));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            filters.add(KeysetSupport.idAfter(KeysetSupport.decode(cursor)[1], true));
+        }
+        Query query = (filters.isEmpty() ? new Query() : new Query(new Criteria().andOperator(filters)))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Product.class);
+    }
+
+    private Sort sortOf(PageSort sort) {
+        return switch (sort) {
+            case PRICE_ASC -> Sort.by(Sort.Direction.ASC, "price", "_id");
+            case PRICE_DESC -> Sort.by(Sort.Direction.DESC, "price", "_id");
+            case ID -> Sort.by(Sort.Direction.ASC, "_id");
+        };
+    }
+
+    private Criteria after(PageSort sort, String[] cursor) {
+        String lastPrice = cursor[0];
+        String lastId = cursor[1];
+        if (sort == PageSort.ID) {
+            return KeysetSupport.idAfter(lastId, true);
+        }
+        boolean ascending = sort == PageSort.PRICE_ASC;
+        // Los precios nulos van antes que cualquier número en el orden de BSON
+        if (lastPrice == null) {
+            Criteria samePrice = new Criteria().andOperator(Criteria.where("price").is(null), KeysetSupport.idAfter(lastId, ascending));
+            return ascending
+                    ? new Criteria().orOperator(samePrice, Criteria.where("price").ne(null))
+                    : samePrice;
+        }
+        Decimal128 price;
+        try {
+            price = new Decimal128(new BigDecimal(lastPrice));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        Criteria beyond = ascending ? Criteria.where("price").gt(price) : Criteria.where("price").lt(price);
+        Criteria samePrice = new Criteria().andOperator(Criteria.where("price").is(price), KeysetSupport.idAfter(lastId, ascending));
+        return ascending
+                ? new Criteria().orOperator(beyond, samePrice)
+                : new Criteria().orOperator(beyond, samePrice, Criteria.where("price").is(null));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.model.Review;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ReviewRepositoryCustom {
+
+    // Reviews de un producto, más recientes primero; rating opcional (1..5)
+    CursorPage<Review> findPageByProduct(String productId, Integer rating, String cursor, int limit);
+
+    // Las perProduct reviews más recientes de cada producto, en una sola agregación
+    Map<String, List<Review>> findLatestByProducts(Collection<String> productIds, int perProduct);
+}
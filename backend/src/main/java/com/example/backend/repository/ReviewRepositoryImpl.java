@@ -0,0 +1,91 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.model.Review;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ReviewRepositoryImpl implements ReviewRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public CursorPage<Review> findPageByProduct(String productId, Integer rating, String cursor, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("productId").is(productId));
+        if (rating != null) {
+            filters.add(Criteria.where("rating").is(rating));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            filters.add(after(KeysetSupport.decode(cursor)));
+        }
+
+        // Usa productId_date_id o productId_rating_date_id: la primera página lee solo limit+1 entradas
+        Query query = new Query(new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.DESC, "date", "_id"))
+                .limit(limit + 1);
+
+        List<Review> rows = mongoTemplate.find(query, Review.class);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Review> page = new ArrayList<>(rows.subList(0, limit));
+        Review last = page.get(limit - 1);
+        String sortKey = last.getDate() == null ? null : String.valueOf(last.getDate().toEpochMilli());
+        return new CursorPage<>(page, KeysetSupport.encode(sortKey, last.getId()));
+    }
+
+    @Override
+    public Map<String, List<Review>> findLatestByProducts(Collection<String> productIds, int perProduct) {
+        // $firstN (MongoDB 5.2+) corta dentro del $group: no acumula todas las reviews del producto
+        AggregationOperation firstN = context -> new Document("$group", new Document("_id", "$productId")
+                .append("latest", new Document("$firstN", new Document("input", "$$ROOT").append("n", perProduct))));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("productId").in(productIds)),
+                Aggregation.sort(Sort.by(Sort.Direction.ASC, "productId").and(Sort.by(Sort.Direction.DESC, "date", "_id"))),
+                firstN);
+
+        Map<String, List<Review>> result = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, Review.class, Document.class).getMappedResults()) {
+            List<Review> latest = new ArrayList<>();
+            for (Object raw : group.getList("latest", Object.class)) {
+                latest.add(mongoTemplate.getConverter().read(Review.class, (Document) raw));
+            }
+            result.put(group.getString("_id"), latest);
+        }
+        return result;
+    }
+
+    private Criteria after(String[] cursor) {
+        String lastDate = cursor[0];
+        String lastId = cursor[1];
+        // En orden descendente las fechas nulas quedan al final
+        if (lastDate == null) {
+            return new Criteria().andOperator(Criteria.where("date").is(null), KeysetSupport.idAfter(lastId, false));
+        }
+        Instant date;
+        try {
+            date = Instant.ofEpochMilli(Long.parseLong(lastDate));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        return new Criteria().orOperator(
+                Criteria.where("date").lt(date),
+                new Criteria().andOperator(Criteria.where("date").is(date), KeysetSupport.idAfter(lastId, false)),
+                Criteria.where("date").is(null));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends MongoRepository<StockReservation, String> {
+    List<StockReservation> findByStatusAndExpiresAtBefore(String status, Instant now, Pageable pageable);
+}
@@ -4,12 +4,15 @@ import com.example.backend.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+    // Login por email o username en una sola consulta ($or sobre los índices únicos normalizados)
+    List<User> findByEmailKeyOrUsernameKey(String emailKey, String usernameKey);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 }
@@ -0,0 +1,94 @@
+package com.example.backend.security;
+
+import com.example.backend.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting por ruta antes de llegar a los controllers. Corre después del filtro
+ * JWT para poder limitar por usuario autenticado; los anónimos se limitan por IP.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<CompiledRule> rules = new ArrayList<>();
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, MeterRegistry registry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            if (rule.getCapacity() <= 0 || rule.getRefillPerSecond() <= 0) {
+                throw new IllegalStateException("Regla de rate limit inválida: " + rule.getName());
+            }
+            Counter rejected = Counter.builder("ratelimit.rejected").tag("rule", rule.getName()).register(registry);
+            rules.add(new CompiledRule(rule, rejected));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || rules.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        CompiledRule rule = match(request);
+        if (rule != null) {
+            String key = rule.rule.getName() + ":" + clientKey(request);
+            long waitNanos = rateLimiter.tryAcquire(key, rule.rule.getCapacity(), rule.rule.getRefillPerSecond());
+            if (waitNanos > 0) {
+                rule.rejected.increment();
+                long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+                response.setStatus(429);
+                response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"Demasiadas solicitudes, intenta nuevamente más tarde\"}");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private CompiledRule match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        for (CompiledRule rule : rules) {
+            String ruleMethod = rule.rule.getMethod();
+            if ((ruleMethod == null || ruleMethod.isEmpty() || ruleMethod.equalsIgnoreCase(method))
+                    && pathMatcher.match(rule.rule.getPattern(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "user:" + auth.getName();
+        }
+        // Detrás del proxy, Tomcat ya resolvió la IP real desde X-Forwarded-For
+        // (server.forward-headers-strategy=native, solo saltando proxies de confianza)
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private record CompiledRule(RateLimitProperties.Rule rule, Counter rejected) {}
+}
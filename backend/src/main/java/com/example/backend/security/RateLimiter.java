@@ -0,0 +1,115 @@
+package com.example.backend.security;
+
+import com.example.backend.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets sin locks, uno por clave (regla + IP/usuario).
+ *
+ * Cada bucket es un único AtomicLong con el "tiempo teórico de llegada" (GCRA),
+ * que equivale a un token bucket de capacidad C y recarga R: consumir un token es
+ * un CAS sobre ese long, sin objetos nuevos por request. Las claves se reparten en
+ * varios mapas (stripes) para que el barrido de inactivos avance por partes.
+ * Un bucket cuyo tiempo teórico ya pasó está lleno, así que eliminarlo no cambia
+ * el resultado para esa clave; eso lo hace solo el barrido programado.
+ *
+ * Con un stripe lleno (max-buckets) las claves nuevas no se registran: comparten un
+ * bucket de desborde por regla hasta que el barrido libere espacio. Así una avalancha de
+ * claves distintas no hace crecer la memoria ni recorre el mapa en cada request.
+ */
+@Component
+public class RateLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    // regla -> bucket compartido por las claves que no entraron por el límite
+    private final ConcurrentHashMap<String, AtomicLong> overflow = new ConcurrentHashMap<>();
+    private final Counter overflowed;
+    private final long idleNanos;
+    private final int maxBucketsPerStripe;
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(RateLimitProperties properties, MeterRegistry registry) {
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.idleNanos = properties.getIdleEvictionSeconds() * 1_000_000_000L;
+        this.maxBucketsPerStripe = Math.max(1, properties.getMaxBuckets() / STRIPES);
+        Gauge.builder("ratelimit.buckets", this, RateLimiter::size).register(registry);
+        this.overflowed = Counter.builder("ratelimit.overflow").register(registry);
+    }
+
+    /**
+     * Intenta consumir un token. Devuelve 0 si se permitió, o los nanosegundos a
+     * esperar hasta que haya un token disponible. La clave tiene la forma regla:cliente.
+     */
+    public long tryAcquire(String key, int capacity, double refillPerSecond) {
+        long interval = (long) (1_000_000_000L / refillPerSecond);
+        long burst = interval * (capacity - 1L);
+        ConcurrentHashMap<String, AtomicLong> stripe = stripeFor(key);
+        AtomicLong bucket = stripe.get(key);
+        if (bucket == null) {
+            if (stripe.size() >= maxBucketsPerStripe) {
+                overflowed.increment();
+                bucket = overflow.computeIfAbsent(ruleOf(key), k -> new AtomicLong(Long.MIN_VALUE));
+            } else {
+                bucket = stripe.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+            }
+        }
+
+        while (true) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            long base = tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+            long wait = base - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, base + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            evictIdle(stripe, now);
+        }
+    }
+
+    private void evictIdle(ConcurrentHashMap<String, AtomicLong> stripe, long now) {
+        stripe.values().removeIf(bucket -> {
+            long tat = bucket.get();
+            return tat == Long.MIN_VALUE || now - tat > idleNanos;
+        });
+    }
+
+    private static String ruleOf(String key) {
+        int colon = key.indexOf(':');
+        return colon < 0 ? key : key.substring(0, colon);
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripeFor(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private double size() {
+        long total = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            total += stripe.size();
+        }
+        return total;
+    }
+}
@@ -1,14 +1,10 @@
 package com.example.backend.security;
 
-import com.example.backend.service.JwtUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.ProviderManager;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,6 +12,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -31,22 +28,18 @@ public class SecurityConfig {
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Autowired
-    private JwtUserDetailsService userDetailsService;
+    private RateLimitFilter rateLimitFilter;
 
     @Value("${app.frontend.origin:http://localhost:5173}")
     private String frontendOrigin;
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
+    // Costo de BCrypt; al subirlo, los hashes existentes se actualizan en el próximo login
+    @Value("${app.security.bcrypt-strength:10}")
+    private int bcryptStrength;
 
     @Bean
-    public AuthenticationManager authenticationManager() {
-        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setUserDetailsService(userDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
-        return new ProviderManager(provider);
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -62,13 +55,17 @@ public class SecurityConfig {
                     .requestMatchers(HttpMethod.GET, "/api/v1/ofertas/**").permitAll()
                     .requestMatchers(HttpMethod.GET, "/api/v1/reviews/**").permitAll()
                     .requestMatchers(HttpMethod.POST, "/api/v1/reviews").permitAll() // Permitir crear reviews sin auth
+                    .requestMatchers(HttpMethod.POST, "/api/v1/reviews/batch").permitAll() // Lectura por lotes
                     // Allow unauthenticated access to health endpoint so curl can read it
-                    .requestMatchers("/actuator/health").permitAll()
-                    .requestMatchers("/actuator/**").permitAll() // Permitir todos los endpoints de actuator
+                    .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                    // Métricas (cache, auth, rate limit, pagos) solo para administradores
+                    .requestMatchers("/actuator/**").hasRole("ADMIN")
                     .anyRequest().authenticated()
                 );
 
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Después del JWT para poder limitar por usuario; antes de autorizar para cortar temprano
+        http.addFilterBefore(rateLimitFilter, AuthorizationFilter.class);
         return http.build();
     }
 
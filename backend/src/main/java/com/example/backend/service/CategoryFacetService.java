@@ -0,0 +1,193 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CategoryFacet;
+import com.example.backend.model.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Facetas por categoría del catálogo (cantidad, con stock, precio mínimo y máximo) en memoria.
+ *
+ * Se mantienen de forma incremental: cada alta, cambio, baja o movimiento de stock aplica
+ * solo la diferencia del producto afectado. Por categoría se guarda un multiconjunto de
+ * precios ordenado, así quitar el precio mínimo o máximo no obliga a recorrer la
+ * categoría. Los lectores ven una lista inmutable que se reemplaza en cada cambio.
+ *
+ * Una reconstrucción periódica desde Mongo corrige cambios hechos por otras instancias.
+ */
+@Service
+public class CategoryFacetService {
+
+    private final MongoTemplate mongoTemplate;
+    private final Object rebuildLock = new Object();
+
+    // productId -> datos del producto que cuentan para las facetas
+    private final Map<String, Fact> facts = new HashMap<>();
+    private final Map<String, Bucket> buckets = new HashMap<>();
+    // No null mientras corre rebuild(): productos cambiados que hay que releer al terminar
+    private Set<String> touchedDuringRebuild;
+
+    private volatile List<CategoryFacet> snapshot = List.of();
+
+    public CategoryFacetService(MongoTemplate mongoTemplate, MeterRegistry registry) {
+        this.mongoTemplate = mongoTemplate;
+        Gauge.builder("catalog.facets.categories", this, s -> s.snapshot.size()).register(registry);
+    }
+
+    /** Facetas ordenadas por nombre de categoría. */
+    public List<CategoryFacet> getAll() {
+        return snapshot;
+    }
+
+    public synchronized void upsert(Product product) {
+        apply(product.getId(), Fact.of(product));
+        publish();
+    }
+
+    public synchronized void remove(String productId) {
+        apply(productId, null);
+        publish();
+    }
+
+    /** Relee desde Mongo los productos indicados (p. ej. tras un $inc de stock que no devuelve el documento). */
+    public void refresh(Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Query query = new Query(Criteria.where("_id").in(productIds));
+        query.fields().include("category", "price", "stock");
+        List<Product> found = mongoTemplate.find(query, Product.class);
+        synchronized (this) {
+            Set<String> missing = new HashSet<>(productIds);
+            for (Product p : found) {
+                missing.remove(p.getId());
+                apply(p.getId(), Fact.of(p));
+            }
+            for (String id : missing) {
+                apply(id, null);
+            }
+            publish();
+        }
+    }
+
+    /** Reconstruye todo desde Mongo leyendo solo category, price y stock. */
+    @Scheduled(initialDelayString = "${app.catalog.facets.rebuild-interval-ms:300000}",
+            fixedDelayString = "${app.catalog.facets.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildFromMongo();
+        }
+    }
+
+    private void rebuildFromMongo() {
+        synchronized (this) {
+            touchedDuringRebuild = new HashSet<>();
+        }
+        Set<String> touched = Set.of();
+        try {
+            Map<String, Fact> newFacts = new HashMap<>();
+            Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).cursorBatchSize(1_000);
+            query.fields().include("category", "price", "stock");
+            try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+                Iterator<Product> it = products.iterator();
+                while (it.hasNext()) {
+                    Product p = it.next();
+                    Fact fact = Fact.of(p);
+                    if (fact != null) {
+                        newFacts.put(p.getId(), fact);
+                    }
+                }
+            }
+            synchronized (this) {
+                touched = touchedDuringRebuild;
+                touchedDuringRebuild = null;
+                facts.clear();
+                buckets.clear();
+                newFacts.forEach(this::apply);
+                publish();
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Category facets rebuild failed: " + e.getMessage());
+        } finally {
+            synchronized (this) {
+                touchedDuringRebuild = null;
+            }
+        }
+        // Lo que cambió mientras se leía puede haber quedado con el valor viejo
+        refresh(touched);
+    }
+
+    private void apply(String productId, Fact next) {
+        if (touchedDuringRebuild != null) {
+            touchedDuringRebuild.add(productId);
+        }
+        Fact previous = next == null ? facts.remove(productId) : facts.put(productId, next);
+        if (previous != null) {
+            Bucket bucket = buckets.get(previous.category());
+            if (bucket != null) {
+                bucket.remove(previous);
+                if (bucket.count == 0) {
+                    buckets.remove(previous.category());
+                }
+            }
+        }
+        if (next != null) {
+            buckets.computeIfAbsent(next.category(), c -> new Bucket()).add(next);
+        }
+    }
+
+    private void publish() {
+        List<CategoryFacet> facets = new ArrayList<>(buckets.size());
+        new TreeMap<>(buckets).forEach((category, b) -> facets.add(new CategoryFacet(category, b.count, b.inStock,
+                b.prices.isEmpty() ? null : b.prices.firstKey(),
+                b.prices.isEmpty() ? null : b.prices.lastKey())));
+        snapshot = List.copyOf(facets);
+    }
+
+    // Productos sin categoría no aparecen en las facetas
+    private record Fact(String category, BigDecimal price, boolean inStock) {
+        static Fact of(Product p) {
+            if (p.getCategory() == null || p.getCategory().isBlank()) {
+                return null;
+            }
+            return new Fact(p.getCategory(), p.getPrice(), p.getStock() != null && p.getStock() > 0);
+        }
+    }
+
+    private static final class Bucket {
+        long count;
+        long inStock;
+        // precio -> cantidad de productos con ese precio
+        final TreeMap<BigDecimal, Integer> prices = new TreeMap<>();
+
+        void add(Fact f) {
+            count++;
+            if (f.inStock()) inStock++;
+            if (f.price() != null) prices.merge(f.price(), 1, Integer::sum);
+        }
+
+        void remove(Fact f) {
+            count--;
+            if (f.inStock()) inStock--;
+            if (f.price() != null) prices.computeIfPresent(f.price(), (k, n) -> n == 1 ? null : n - 1);
+        }
+    }
+}
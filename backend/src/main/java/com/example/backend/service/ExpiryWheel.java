@@ -0,0 +1,105 @@
+package com.example.backend.service;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Rueda de tiempo (hashed timing wheel) para vencer claves fuera del hilo del request.
+ *
+ * schedule() solo encola la clave en una cola lock-free, O(1). Un único hilo avanza
+ * un slot por tick, reparte lo encolado en los slots y vence el slot actual, así
+ * el costo de expirar es O(1) amortizado por clave y nunca se recorre el conjunto
+ * completo de sesiones vivas. Los plazos más largos que una vuelta se manejan con
+ * un contador de vueltas por entrada.
+ */
+public class ExpiryWheel<K> {
+
+    private final long tickMillis;
+    private final ArrayDeque<Entry<K>>[] buckets;
+    private final Queue<Entry<K>> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<K> onExpire;
+    private final ScheduledExecutorService worker;
+    private final long startMillis;
+
+    // Solo lo usa el hilo de la rueda
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public ExpiryWheel(String name, long tickMillis, int slots, Consumer<K> onExpire) {
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayDeque[slots];
+        for (int i = 0; i < slots; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.onExpire = onExpire;
+        this.startMillis = System.currentTimeMillis();
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+        worker.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void schedule(K key, long deadlineMillis) {
+        pending.add(new Entry<>(key, deadlineMillis));
+    }
+
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    private void advance() {
+        long targetTick = (System.currentTimeMillis() - startMillis) / tickMillis;
+        // Si el hilo se atrasó, se ponen al día todos los ticks pendientes
+        while (tick <= targetTick) {
+            transferPending();
+            expireBucket();
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Entry<K> entry;
+        while ((entry = pending.poll()) != null) {
+            long due = Math.max((entry.deadlineMillis - startMillis + tickMillis - 1) / tickMillis, tick);
+            entry.rounds = (due - tick) / buckets.length;
+            buckets[(int) (due % buckets.length)].add(entry);
+        }
+    }
+
+    private void expireBucket() {
+        Iterator<Entry<K>> it = buckets[(int) (tick % buckets.length)].iterator();
+        while (it.hasNext()) {
+            Entry<K> entry = it.next();
+            if (entry.rounds > 0) {
+                entry.rounds--;
+                continue;
+            }
+            it.remove();
+            try {
+                onExpire.accept(entry.key);
+            } catch (RuntimeException e) {
+                // Un callback que falla no debe detener la rueda (scheduleAtFixedRate se cancela ante una excepción)
+                System.err.println("Expiry callback failed for " + entry.key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long deadlineMillis;
+        private long rounds;
+
+        private Entry(K key, long deadlineMillis) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderFilter;
+import com.example.backend.model.Order;
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.Product;
+import com.example.backend.model.ShippingInfo;
+import com.example.backend.repository.KeysetSupport;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.OrderRepositoryCustom;
+import com.example.backend.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Exportación masiva de órdenes y productos en NDJSON o CSV.
+ *
+ * Las filas se escriben a medida que llegan del cursor de Mongo, así exportar millones de
+ * órdenes no junta el resultado en memoria. Cada fila lleva la columna "cursor": para
+ * retomar una descarga cortada se vuelve a pedir con el cursor de la última orden (o
+ * producto) recibida completa.
+ */
+@Service
+public class ExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    // Una fila por línea de la orden; las columnas de la orden se repiten en cada línea
+    private static final List<String> ORDER_COLUMNS = List.of(
+            "orderId", "createdAt", "userId", "status", "deliveryOption", "region",
+            "subtotal", "descuentoDuoc", "iva", "shippingCost", "total",
+            "productId", "productName", "quantity", "unitPrice", "precioOriginal", "tieneDescuentoDuoc",
+            "cursor");
+
+    private static final List<String> PRODUCT_COLUMNS = List.of(
+            "id", "name", "category", "price", "stock", "weightGrams", "cursor");
+
+    private static final int FLUSH_EVERY = 1_000;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public static Format parseFormat(String format) {
+        if (format == null || format.isBlank()) {
+            return Format.NDJSON;
+        }
+        try {
+            return Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato no soportado: " + format + " (ndjson, csv)");
+        }
+    }
+
+    /**
+     * Valida filtro y cursor y abre el cursor de Mongo de órdenes, por createdAt ascendente (las
+     * que llegan durante la exportación quedan al final). Se llama antes de tocar la respuesta,
+     * así un error todavía puede responderse como 400. Hay que cerrar el Stream.
+     */
+    public Stream<Order> openOrders(OrderFilter filter, String cursor) {
+        return orderRepository.streamFiltered(orderService.normalize(filter), cursor, null, true, null);
+    }
+
+    /** Productos por _id ascendente; category opcional. Hay que cerrar el Stream. */
+    public Stream<Product> openProducts(String category, String cursor) {
+        return productRepository.streamAll(category, cursor);
+    }
+
+    public void writeOrders(Stream<Order> orders, Format format, OutputStream out) throws IOException {
+        try (RowWriter writer = rowWriter(format, ORDER_COLUMNS, out)) {
+            Iterator<Order> it = orders.iterator();
+            int count = 0;
+            while (it.hasNext()) {
+                Order order = it.next();
+                String next = OrderRepositoryCustom.cursorOf(order);
+                List<OrderItem> items = order.getItems();
+                if (items == null || items.isEmpty()) {
+                    writer.row(orderRow(order, null, next));
+                } else {
+                    for (OrderItem item : items) {
+                        writer.row(orderRow(order, item, next));
+                    }
+                }
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+    }
+
+    public void writeProducts(Stream<Product> products, Format format, OutputStream out) throws IOException {
+        try (RowWriter writer = rowWriter(format, PRODUCT_COLUMNS, out)) {
+            Iterator<Product> it = products.iterator();
+            int count = 0;
+            while (it.hasNext()) {
+                Product p = it.next();
+                writer.row(new Object[] {
+                        p.getId(), p.getName(), p.getCategory(), p.getPrice(), p.getStock(), p.getWeightGrams(),
+                        KeysetSupport.encode(null, p.getId())
+                });
+                if (++count % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+    }
+
+    private Object[] orderRow(Order o, OrderItem item, String cursor) {
+        ShippingInfo shipping = o.getShippingInfo();
+        return new Object[] {
+                o.getId(), o.getCreatedAt() == null ? null : o.getCreatedAt().toString(), o.getUserId(), o.getStatus(),
+                o.getDeliveryOption(), shipping == null ? null : shipping.getRegion(),
+                o.getSubtotal(), o.getDescuentoDuoc(), o.getIva(), o.getShippingCost(), o.getTotal(),
+                item == null ? null : item.getProductId(),
+                item == null ? null : item.getName(),
+                item == null ? null : item.getQuantity(),
+                item == null ? null : item.getPrice(),
+                item == null ? null : item.getPrecioOriginal(),
+                item == null ? null : item.isTieneDescuentoDuoc(),
+                cursor
+        };
+    }
+
+    private RowWriter rowWriter(Format format, List<String> columns, OutputStream out) throws IOException {
+        return format == Format.CSV ? new CsvWriter(columns, out) : new NdjsonWriter(columns, out);
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void row(Object[] values) throws IOException;
+
+        void flush() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private final class NdjsonWriter implements RowWriter {
+        private final List<String> columns;
+        private final JsonGenerator gen;
+        // Sin flush por valor: el buffer se vacía cada FLUSH_EVERY filas
+        private final ObjectWriter values = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        NdjsonWriter(List<String> columns, OutputStream out) throws IOException {
+            this.columns = columns;
+            this.gen = objectMapper.getFactory().createGenerator(out);
+            // Sin separador entre valores raíz: cada fila termina con su propio salto de línea
+            this.gen.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void row(Object[] row) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < row.length; i++) {
+                gen.writeFieldName(columns.get(i));
+                values.writeValue(gen, row[i]);
+            }
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            gen.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            gen.close();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvWriter(List<String> columns, OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            row(columns.toArray());
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeField(values[i] instanceof BigDecimal d ? d.toPlainString() : values[i].toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: comillas solo si hace falta, duplicando las internas
+        private void writeField(String value) throws IOException {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
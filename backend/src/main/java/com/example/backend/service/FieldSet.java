@@ -0,0 +1,127 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CursorPage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Campos que un listado puede devolver con ?fields=, para las vistas de grilla y tabla.
+ *
+ * Cada campo JSON se asocia a su campo en Mongo, así la selección se aplica como
+ * proyección en la consulta (no se transfiere lo que no se pidió) y la respuesta se arma
+ * solo con esos campos. Sin fields se usa la proyección resumen del listado; fields=*
+ * devuelve el documento completo. El id siempre se incluye.
+ */
+public final class FieldSet<T> {
+
+    public static final String ALL = "*";
+
+    private record Field<T>(String path, Function<T, Object> getter) {}
+
+    private final Map<String, Field<T>> fields;
+    private final List<String> summary;
+
+    private FieldSet(Map<String, Field<T>> fields, List<String> summary) {
+        this.fields = fields;
+        this.summary = summary;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public Selection<T> select(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return new Selection<>(this, summary);
+        }
+        if (ALL.equals(spec.trim())) {
+            return new Selection<>(this, null);
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add("id");
+        for (String raw : spec.split(",")) {
+            String name = raw.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!fields.containsKey(name)) {
+                throw new IllegalArgumentException("Campo desconocido: " + name + " (disponibles: "
+                        + String.join(", ", fields.keySet()) + ")");
+            }
+            names.add(name);
+        }
+        return new Selection<>(this, List.copyOf(names));
+    }
+
+    /** Campos elegidos para una consulta; names null = todos. */
+    public static final class Selection<T> {
+        private final FieldSet<T> set;
+        private final List<String> names;
+
+        private Selection(FieldSet<T> set, List<String> names) {
+            this.set = set;
+            this.names = names;
+        }
+
+        /** Campos de Mongo a proyectar, o null si se pidió el documento completo. */
+        public Set<String> paths() {
+            if (names == null) {
+                return null;
+            }
+            Set<String> paths = new LinkedHashSet<>();
+            for (String name : names) {
+                paths.add(set.fields.get(name).path());
+            }
+            return paths;
+        }
+
+        public Map<String, Object> render(T entity) {
+            Collection<String> selected = names == null ? set.fields.keySet() : names;
+            Map<String, Object> out = new LinkedHashMap<>();
+            for (String name : selected) {
+                out.put(name, set.fields.get(name).getter().apply(entity));
+            }
+            return out;
+        }
+
+        public CursorPage<Map<String, Object>> render(CursorPage<T> page) {
+            List<Map<String, Object>> items = new ArrayList<>(page.getItems().size());
+            for (T entity : page.getItems()) {
+                items.add(render(entity));
+            }
+            return new CursorPage<>(items, page.getNextCursor());
+        }
+    }
+
+    public static final class Builder<T> {
+        private final Map<String, Field<T>> fields = new LinkedHashMap<>();
+        private List<String> summary = List.of("id");
+
+        public Builder<T> field(String name, String path, Function<T, Object> getter) {
+            fields.put(name, new Field<>(path, getter));
+            return this;
+        }
+
+        public Builder<T> summary(String... names) {
+            for (String name : names) {
+                if (!fields.containsKey(name)) {
+                    throw new IllegalStateException("Campo resumen no definido: " + name);
+                }
+            }
+            this.summary = List.of(names);
+            return this;
+        }
+
+        public FieldSet<T> build() {
+            return new FieldSet<>(Collections.unmodifiableMap(new LinkedHashMap<>(fields)), summary);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.backend.service;
+
+import com.example.backend.model.PaymentSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@ConditionalOnProperty(name = "app.payment.session-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPaymentSessionStore implements PaymentSessionStore {
+
+    private final Map<String, PaymentSession> paymentSessions = new ConcurrentHashMap<>();
+    private final Counter expiredSessions;
+    private final ExpiryWheel<String> expiryWheel;
+
+    public InMemoryPaymentSessionStore(MeterRegistry registry) {
+        Gauge.builder("payment.sessions.live", paymentSessions, Map::size).register(registry);
+        this.expiredSessions = Counter.builder("payment.sessions.expired").register(registry);
+        // Vence las sesiones en segundo plano: 1 tick por segundo, 512 slots (~8,5 min por vuelta)
+        this.expiryWheel = new ExpiryWheel<>("payment-session-expiry", 1000, 512, this::expireSession);
+    }
+
+    @Override
+    public void save(PaymentSession session) {
+        paymentSessions.put(session.getToken(), session);
+        expiryWheel.schedule(session.getToken(), session.getExpiresAt().toEpochMilli());
+    }
+
+    @Override
+    public Optional<PaymentSession> take(String token) {
+        return Optional.ofNullable(paymentSessions.remove(token));
+    }
+
+    // Llamado por la rueda; si la sesión ya se confirmó no hay nada que hacer.
+    // El stock retenido lo libera el barrido de StockReservationService.
+    private void expireSession(String token) {
+        PaymentSession session = paymentSessions.get(token);
+        if (session == null) {
+            return;
+        }
+        if (!session.isExpired()) {
+            // La rueda trabaja en milisegundos y expiresAt puede vencer dentro del mismo ms: reprogramar
+            expiryWheel.schedule(token, session.getExpiresAt().toEpochMilli() + 1);
+            return;
+        }
+        if (paymentSessions.remove(token, session)) {
+            expiredSessions.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expiryWheel.stop();
+    }
+}
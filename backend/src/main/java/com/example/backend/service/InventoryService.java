@@ -0,0 +1,142 @@
+package com.example.backend.service;
+
+import com.example.backend.exception.InsufficientStockException;
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Descuento y reposición de stock con updates condicionales de Mongo.
+ *
+ * Todas las líneas se descuentan en un único bulk write con $inc condicionado a
+ * stock >= cantidad, así dos compras simultáneas del mismo producto nunca dejan
+ * stock negativo ni pierden actualizaciones. Cada update marca el producto con el
+ * id de la operación; si alguna línea no alcanza, solo se devuelven las que sí se
+ * descontaron (las que tienen la marca).
+ */
+@Service
+public class InventoryService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private CategoryFacetService facetService;
+
+    public void decrement(String opId, List<OrderItem> items) {
+        Map<String, Integer> quantities = hold(opId, items);
+        commitHold(opId, quantities.keySet());
+    }
+
+    /**
+     * Descuenta el stock dejando la marca opId en cada producto. La marca permite
+     * liberar la retención más tarde de forma idempotente (ver releaseHold).
+     */
+    public Map<String, Integer> hold(String opId, List<OrderItem> items) {
+        Map<String, Integer> quantities = aggregate(items);
+        if (quantities.isEmpty()) {
+            return quantities;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        quantities.forEach((productId, qty) -> bulk.updateOne(
+                new Query(Criteria.where("_id").is(productId).and("stock").gte(qty)),
+                new Update().inc("stock", -qty).push("stockOps", opId)));
+        int modified = bulk.execute().getModifiedCount();
+
+        try {
+            if (modified == quantities.size()) {
+                return quantities;
+            }
+
+            // Productos que no se pudieron descontar (sin stock o inexistentes)
+            Query failedQuery = new Query(Criteria.where("_id").in(quantities.keySet()).and("stockOps").ne(opId));
+            failedQuery.fields().include("name");
+            List<String> failedNames = mongoTemplate.find(failedQuery, Product.class).stream()
+                    .map(Product::getName)
+                    .collect(Collectors.toList());
+
+            restoreMarked(opId, quantities);
+            throw new InsufficientStockException("Stock insuficiente para producto: "
+                    + (failedNames.isEmpty() ? "no encontrado" : String.join(", ", failedNames)));
+        } finally {
+            catalogCache.evictAll(quantities.keySet());
+            facetService.refresh(quantities.keySet());
+        }
+    }
+
+    /** Confirma una retención: el stock ya descontado queda definitivo. */
+    public void commitHold(String opId, Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(productIds)),
+                new Update().pull("stockOps", opId),
+                Product.class);
+    }
+
+    /** Devuelve el stock retenido; solo toca productos que aún tienen la marca, así repetirlo no duplica stock. */
+    public void releaseHold(String opId, List<OrderItem> items) {
+        Map<String, Integer> quantities = aggregate(items);
+        if (quantities.isEmpty()) {
+            return;
+        }
+        restoreMarked(opId, quantities);
+        catalogCache.evictAll(quantities.keySet());
+        facetService.refresh(quantities.keySet());
+    }
+
+    /** Devuelve stock de una orden cancelada o eliminada. */
+    public void increment(List<OrderItem> items) {
+        Map<String, Integer> quantities = aggregate(items);
+        if (quantities.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        quantities.forEach((productId, qty) -> bulk.updateOne(
+                new Query(Criteria.where("_id").is(productId)),
+                new Update().inc("stock", qty)));
+        bulk.execute();
+        catalogCache.evictAll(quantities.keySet());
+        facetService.refresh(quantities.keySet());
+    }
+
+    private void restoreMarked(String opId, Map<String, Integer> quantities) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        quantities.forEach((productId, qty) -> bulk.updateOne(
+                new Query(Criteria.where("_id").is(productId).and("stockOps").is(opId)),
+                new Update().inc("stock", qty).pull("stockOps", opId)));
+        bulk.execute();
+    }
+
+    // Una línea por producto: el mismo producto repetido en el carrito se descuenta junto
+    private Map<String, Integer> aggregate(List<OrderItem> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        if (items == null) {
+            return quantities;
+        }
+        for (OrderItem item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Item de orden inválido: " + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
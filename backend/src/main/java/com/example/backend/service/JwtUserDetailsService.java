@@ -4,6 +4,7 @@ import com.example.backend.model.Role;
 import com.example.backend.model.User;
 import com.example.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,7 +13,10 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,19 +25,67 @@ public class JwtUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Value("${app.security.user-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${app.security.user-cache.max-entries:10000}")
+    private int maxEntries;
+
+    // Cache acotado por tamaño y TTL; UserService lo invalida al cambiar o borrar usuarios
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+    // Cada invalidación lo incrementa; una carga que se cruzó con una invalidación no se guarda
+    private final AtomicLong invalidations = new AtomicLong();
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        long now = System.nanoTime();
+        CachedUser cached = cache.get(username);
+        if (cached != null && now < cached.expiresAt) {
+            return copyOf(cached.details);
+        }
+
+        long generation = invalidations.get();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        return new org.springframework.security.core.userdetails.User(
+        UserDetails details = new org.springframework.security.core.userdetails.User(
                 user.getUsername(),
                 user.getPassword(),
                 mapRolesToAuthorities(user.getRoles())
         );
+        store(username, details, now, generation);
+        return copyOf(details);
+    }
+
+    /** Saca al usuario del cache: el próximo request con su token ve los roles actuales. */
+    public void evict(String username) {
+        if (username != null) {
+            invalidations.incrementAndGet();
+            cache.remove(username);
+        }
+    }
+
+    private void store(String username, UserDetails details, long now, long generation) {
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(c -> now >= c.expiresAt);
+            if (cache.size() >= maxEntries) {
+                return;
+            }
+        }
+        if (invalidations.get() == generation) {
+            cache.put(username, new CachedUser(details, now + ttlSeconds * 1_000_000_000L));
+        }
+    }
+
+    // Spring Security borra la contraseña del UserDetails autenticado; se entrega una copia para no tocar el cache
+    private UserDetails copyOf(UserDetails details) {
+        return org.springframework.security.core.userdetails.User.withUserDetails(details).build();
     }
 
     private Collection<? extends GrantedAuthority> mapRolesToAuthorities(Set<Role> roles) {
         return roles.stream().map(r -> new SimpleGrantedAuthority("ROLE_" + r.name())).collect(Collectors.toSet());
     }
+
+    private record CachedUser(UserDetails details, long expiresAt) {}
 }
@@ -0,0 +1,35 @@
+package com.example.backend.service;
+
+import com.example.backend.model.PaymentSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Sesiones compartidas entre instancias en la colección payment_sessions.
+ * Mongo borra las vencidas con el índice TTL sobre expiresAt (el monitor TTL corre
+ * cada ~60 s, por eso PaymentService igual revisa isExpired() al confirmar).
+ */
+@Component
+@ConditionalOnProperty(name = "app.payment.session-store", havingValue = "mongo")
+public class MongoPaymentSessionStore implements PaymentSessionStore {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void save(PaymentSession session) {
+        mongoTemplate.insert(session);
+    }
+
+    @Override
+    public Optional<PaymentSession> take(String token) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(
+                new Query(Criteria.where("_id").is(token)), PaymentSession.class));
+    }
+}
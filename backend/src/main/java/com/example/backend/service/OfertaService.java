@@ -2,31 +2,81 @@ package com.example.backend.service;
 
 import com.example.backend.model.Oferta;
 import com.example.backend.repository.OfertaRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * Las lecturas se responden desde OfferIndex, sin ir a Mongo. Cada escritura aplica solo
+ * la oferta cambiada al índice; el refresco periódico recoge cambios de otras instancias.
+ */
 @Service
 public class OfertaService {
 
     @Autowired
     private OfertaRepository ofertaRepository;
 
+    @Autowired
+    private OfferIndex offerIndex;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${app.offers.refresh-interval-ms:60000}", initialDelayString = "${app.offers.refresh-interval-ms:60000}")
+    public void refresh() {
+        offerIndex.rebuild(ofertaRepository.findAll());
+        pricingService.invalidateAll();
+    }
+
     public List<Oferta> findAll() {
-        return ofertaRepository.findAll();
+        return offerIndex.all();
+    }
+
+    public List<Oferta> findActive(String productId, String category) {
+        Instant now = Instant.now();
+        if (productId == null && category == null) {
+            return offerIndex.active(now);
+        }
+        return offerIndex.activeFor(productId, category, now);
     }
 
     public Oferta create(Oferta oferta) {
-        return ofertaRepository.save(oferta);
+        validate(oferta);
+        Oferta saved = ofertaRepository.save(oferta);
+        applied(saved);
+        return saved;
     }
 
     public Oferta update(String id, Oferta oferta) {
+        validate(oferta);
         oferta.setId(id);
-        return ofertaRepository.save(oferta);
+        Oferta saved = ofertaRepository.save(oferta);
+        applied(saved);
+        return saved;
     }
 
     public void delete(String id) {
         ofertaRepository.deleteById(id);
+        offerIndex.remove(id);
+        pricingService.invalidateAll();
+    }
+
+    private void applied(Oferta saved) {
+        offerIndex.upsert(saved);
+        pricingService.invalidateAll();
+    }
+
+    private void validate(Oferta oferta) {
+        if (oferta.getDiscountPercentage() < 0 || oferta.getDiscountPercentage() > 100) {
+            throw new IllegalArgumentException("El descuento debe estar entre 0 y 100");
+        }
+        if (oferta.getStartsAt() != null && oferta.getEndsAt() != null && !oferta.getEndsAt().isAfter(oferta.getStartsAt())) {
+            throw new IllegalArgumentException("endsAt debe ser posterior a startsAt");
+        }
     }
-}
\ No newline at end of file
+}
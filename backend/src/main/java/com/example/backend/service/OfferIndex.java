@@ -0,0 +1,158 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Oferta;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Índice en memoria de ofertas por ventana de vigencia.
+ *
+ * Las ofertas se agrupan por producto y por categoría; "activas ahora" para un producto
+ * revisa solo las ofertas de su id y su categoría, sin recorrer el resto. Los inicios y
+ * términos de todas las ofertas quedan en un arreglo ordenado, así el próximo cambio del
+ * conjunto de activas es una búsqueda binaria. Armarlo cuesta O(N log N). El índice es
+ * inmutable y se reemplaza en cada cambio (copy-on-write); los lectores nunca toman locks.
+ */
+@Component
+public class OfferIndex {
+
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    public OfferIndex(MeterRegistry registry) {
+        Gauge.builder("offers.index.size", this, i -> i.snapshot.all.size()).register(registry);
+        Gauge.builder("offers.index.boundaries", this, i -> i.snapshot.boundaries.length).register(registry);
+    }
+
+    public synchronized void rebuild(List<Oferta> ofertas) {
+        snapshot = Snapshot.build(ofertas);
+    }
+
+    /** Agrega o reemplaza (por id) una oferta sin recargar la colección. */
+    public synchronized void upsert(Oferta oferta) {
+        List<Oferta> next = new ArrayList<>(snapshot.all.size() + 1);
+        boolean replaced = false;
+        for (Oferta o : snapshot.all) {
+            if (!replaced && oferta.getId() != null && oferta.getId().equals(o.getId())) {
+                next.add(oferta);
+                replaced = true;
+            } else {
+                next.add(o);
+            }
+        }
+        if (!replaced) {
+            next.add(oferta);
+        }
+        snapshot = Snapshot.build(next);
+    }
+
+    public synchronized void remove(String id) {
+        List<Oferta> next = new ArrayList<>(snapshot.all);
+        if (next.removeIf(o -> Objects.equals(id, o.getId()))) {
+            snapshot = Snapshot.build(next);
+        }
+    }
+
+    public List<Oferta> all() {
+        return snapshot.all;
+    }
+
+    public List<Oferta> active(Instant now) {
+        return activeAt(snapshot.all, now);
+    }
+
+    /** Ofertas activas que aplican al producto, ya sea por id o por su categoría. */
+    public List<Oferta> activeFor(String productId, String category, Instant now) {
+        Snapshot s = snapshot;
+        List<Oferta> byProduct = productId == null ? List.of() : activeAt(s.byProduct.getOrDefault(productId, List.of()), now);
+        List<Oferta> byCategory = category == null ? List.of() : activeAt(s.byCategory.getOrDefault(category, List.of()), now);
+        if (byCategory.isEmpty()) {
+            return byProduct;
+        }
+        if (byProduct.isEmpty()) {
+            return byCategory;
+        }
+        List<Oferta> result = new ArrayList<>(byProduct);
+        result.addAll(byCategory);
+        return result;
+    }
+
+    /** Próximo instante en que cambia el conjunto de ofertas activas (null si no hay). */
+    public Instant nextChangeAfter(Instant now) {
+        long[] bounds = snapshot.boundaries;
+        int i = Snapshot.boundariesUpTo(bounds, now.toEpochMilli());
+        return i < bounds.length ? Instant.ofEpochMilli(bounds[i]) : null;
+    }
+
+    private static List<Oferta> activeAt(List<Oferta> ofertas, Instant now) {
+        List<Oferta> active = null;
+        for (int i = 0; i < ofertas.size(); i++) {
+            Oferta o = ofertas.get(i);
+            if (o.isActiveAt(now)) {
+                if (active == null) {
+                    active = new ArrayList<>();
+                }
+                active.add(o);
+            }
+        }
+        return active == null ? List.of() : active;
+    }
+
+    private static final class Snapshot {
+        private final List<Oferta> all;
+        private final Map<String, List<Oferta>> byProduct;
+        private final Map<String, List<Oferta>> byCategory;
+        // Inicios y términos ordenados, sin repetidos
+        private final long[] boundaries;
+
+        private Snapshot(List<Oferta> all, Map<String, List<Oferta>> byProduct,
+                         Map<String, List<Oferta>> byCategory, long[] boundaries) {
+            this.all = all;
+            this.byProduct = byProduct;
+            this.byCategory = byCategory;
+            this.boundaries = boundaries;
+        }
+
+        static Snapshot build(List<Oferta> ofertas) {
+            Map<String, List<Oferta>> byProduct = new HashMap<>();
+            Map<String, List<Oferta>> byCategory = new HashMap<>();
+            long[] points = new long[ofertas.size() * 2];
+            int n = 0;
+            for (Oferta o : ofertas) {
+                if (o.getProductId() != null) {
+                    byProduct.computeIfAbsent(o.getProductId(), k -> new ArrayList<>()).add(o);
+                }
+                if (o.getCategory() != null) {
+                    byCategory.computeIfAbsent(o.getCategory(), k -> new ArrayList<>()).add(o);
+                }
+                if (o.getStartsAt() != null) points[n++] = o.getStartsAt().toEpochMilli();
+                if (o.getEndsAt() != null) points[n++] = o.getEndsAt().toEpochMilli();
+            }
+            Arrays.sort(points, 0, n);
+            int distinct = 0;
+            for (int i = 0; i < n; i++) {
+                if (distinct == 0 || points[i] != points[distinct - 1]) {
+                    points[distinct++] = points[i];
+                }
+            }
+            byProduct.replaceAll((k, v) -> List.copyOf(v));
+            byCategory.replaceAll((k, v) -> List.copyOf(v));
+            return new Snapshot(List.copyOf(ofertas), Map.copyOf(byProduct), Map.copyOf(byCategory),
+                    Arrays.copyOf(points, distinct));
+        }
+
+        // Cantidad de límites <= t
+        static int boundariesUpTo(long[] boundaries, long t) {
+            int pos = Arrays.binarySearch(boundaries, t);
+            return pos >= 0 ? pos + 1 : -pos - 1;
+        }
+    }
+}
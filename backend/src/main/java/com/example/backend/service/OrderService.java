@@ -1,35 +1,145 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.OrderFilter;
+import com.example.backend.dto.OrderQuote;
 import com.example.backend.dto.OrderRequest;
 import com.example.backend.model.Order;
 import com.example.backend.model.OrderItem;
-import com.example.backend.model.Product;
 import com.example.backend.repository.OrderRepository;
-import com.example.backend.repository.ProductRepository;
+import com.example.backend.repository.OrderRepositoryCustom;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_ADMIN_PAGE_SIZE = 100;
+    private static final int MAX_ADMIN_PAGE_SIZE = 1000;
+
+    // Campos para ?fields=; el resumen es una fila de tabla, sin items ni datos de envío
+    static final FieldSet<Order> FIELDS = FieldSet.<Order>builder()
+            .field("id", "_id", Order::getId)
+            .field("userId", "userId", Order::getUserId)
+            .field("status", "status", Order::getStatus)
+            .field("createdAt", "createdAt", Order::getCreatedAt)
+            .field("total", "total", Order::getTotal)
+            .field("subtotal", "subtotal", Order::getSubtotal)
+            .field("descuentoDuoc", "descuentoDuoc", Order::getDescuentoDuoc)
+            .field("iva", "iva", Order::getIva)
+            .field("shippingCost", "shippingCost", Order::getShippingCost)
+            .field("deliveryOption", "deliveryOption", Order::getDeliveryOption)
+            .field("items", "items", Order::getItems)
+            .field("shippingInfo", "shippingInfo", Order::getShippingInfo)
+            .summary("id", "userId", "status", "createdAt", "total", "deliveryOption")
+            .build();
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     public Order processOrderAndPayment(String userId, OrderRequest orderRequest) {
+        applyPricing(userId, orderRequest);
         List<OrderItem> items = orderRequest.getItems();
 
         // First, process the payment
         boolean paymentSuccess = processPayment(orderRequest);
 
         // Create order with appropriate status based on payment result
+        Order o = buildOrder(userId, orderRequest);
+
+        if (paymentSuccess) {
+            // Payment successful - reduce stock atomically (all items or none) and mark as completed
+            inventoryService.decrement(UUID.randomUUID().toString(), items);
+            o.setStatus("COMPLETED");
+            try {
+                return orderRepository.save(o);
+            } catch (RuntimeException e) {
+                inventoryService.increment(items);
+                throw e;
+            }
+        }
+
+        // Payment failed - don't reduce stock, mark as cancelled
+        o.setStatus("CANCELLED");
+        return orderRepository.save(o);
+    }
+
+    /**
+     * Igual que processOrderAndPayment, pero el stock ya fue retenido en iniciarPago:
+     * se confirma la reserva en vez de descontar de nuevo, o se libera si el pago falla.
+     */
+    public Order processReservedOrder(String userId, OrderRequest orderRequest, String reservationToken) {
+        boolean paymentSuccess = processPayment(orderRequest);
+        Order o = buildOrder(userId, orderRequest);
+
+        if (paymentSuccess) {
+            reservationService.commit(reservationToken);
+            o.setStatus("COMPLETED");
+            try {
+                return orderRepository.save(o);
+            } catch (RuntimeException e) {
+                inventoryService.increment(orderRequest.getItems());
+                throw e;
+            }
+        }
+
+        reservationService.release(reservationToken);
+        o.setStatus("CANCELLED");
+        return orderRepository.save(o);
+    }
+
+    /**
+     * Reemplaza precios y totales enviados por el cliente con los calculados en el servidor.
+     * Solo se conservan productId y quantity de cada item.
+     */
+    public void applyPricing(String userId, OrderRequest orderRequest) {
+        String region = orderRequest.getShippingInfo() != null ? orderRequest.getShippingInfo().getRegion() : null;
+        OrderQuote quote = pricingService.quote(userId, orderRequest.getItems(), orderRequest.getDeliveryOption(), region);
+        List<OrderItem> items = new ArrayList<>(quote.getLines().size());
+        for (OrderQuote.Line line : quote.getLines()) {
+            items.add(new OrderItem(line.getProductId(), line.getQuantity(), line.getName(),
+                    OrderQuote.toPesos(line.getUnitCents()), OrderQuote.toPesos(line.getListUnitCents()),
+                    quote.isDuoc(), line.getImage()));
+        }
+        orderRequest.setItems(items);
+        orderRequest.setSubtotal(OrderQuote.toPesos(quote.getSubtotalCents()));
+        orderRequest.setDescuentoDuoc(OrderQuote.toPesos(quote.getDescuentoDuocCents()));
+        orderRequest.setIva(OrderQuote.toPesos(quote.getIvaCents()));
+        orderRequest.setShippingCost(OrderQuote.toPesos(quote.getShippingCents()));
+        orderRequest.setTotal(OrderQuote.toPesos(quote.getTotalCents()));
+    }
+
+    private Order buildOrder(String userId, OrderRequest orderRequest) {
         Order o = new Order();
         o.setUserId(userId);
-        o.setItems(items);
+        o.setItems(orderRequest.getItems());
         o.setTotal(orderRequest.getTotal());
         o.setSubtotal(orderRequest.getSubtotal());
         o.setDescuentoDuoc(orderRequest.getDescuentoDuoc());
@@ -37,27 +147,7 @@ public class OrderService {
         o.setShippingCost(orderRequest.getShippingCost());
         o.setDeliveryOption(orderRequest.getDeliveryOption());
         o.setShippingInfo(orderRequest.getShippingInfo());
-
-        if (paymentSuccess) {
-            // Payment successful - reduce stock and mark as completed
-            for (OrderItem it : items) {
-                Product p = productRepository.findById(it.getProductId()).orElse(null);
-                if (p != null) {
-                    int newStock = p.getStock() - it.getQuantity();
-                    if (newStock < 0) {
-                        throw new RuntimeException("Stock insuficiente para producto: " + p.getName());
-                    }
-                    p.setStock(newStock);
-                    productRepository.save(p);
-                }
-            }
-            o.setStatus("COMPLETED");
-        } else {
-            // Payment failed - don't reduce stock, mark as cancelled
-            o.setStatus("CANCELLED");
-        }
-
-        return orderRepository.save(o);
+        return o;
     }
 
     private boolean processPayment(OrderRequest orderRequest) {
@@ -70,11 +160,77 @@ public class OrderService {
     }
 
     public List<Order> findByUser(String userId) {
-        return orderRepository.findByUserId(userId);
+        return orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    /**
+     * Historial del usuario por páginas, más recientes primero; status opcional, sin distinguir mayúsculas (completed, CANCELLED, ...).
+     * fields como en FieldSet: sin fields, el resumen.
+     */
+    public CursorPage<Map<String, Object>> findPageByUser(String userId, String status, String cursor, Integer limit, String fields) {
+        String normalized = status == null || status.isBlank() ? null : status.trim();
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        FieldSet.Selection<Order> selection = FIELDS.select(fields);
+        return selection.render(orderRepository.findPageByUser(userId, normalized, cursor, size, selection.paths()));
+    }
+
+    /**
+     * Listado de administración: escribe { items, nextCursor } en out a medida que las órdenes
+     * llegan del cursor de Mongo, sin juntarlas en memoria. Filtro y cursor se validan antes
+     * de escribir el primer byte, así un error todavía puede responderse como 400.
+     */
+    public void writeAdminPage(OrderFilter filter, String cursor, Integer limit, String fields, OutputStream out) throws IOException {
+        OrderFilter normalized = normalize(filter);
+        int size = limit == null ? DEFAULT_ADMIN_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_ADMIN_PAGE_SIZE));
+        FieldSet.Selection<Order> selection = FIELDS.select(fields);
+        ObjectWriter writer = streamWriter();
+        try (Stream<Order> orders = orderRepository.streamFiltered(normalized, cursor, size, false, selection.paths());
+             JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("items");
+            Order last = null;
+            int written = 0;
+            Iterator<Order> it = orders.iterator();
+            while (it.hasNext() && written < size) {
+                last = it.next();
+                writer.writeValue(gen, selection.render(last));
+                written++;
+            }
+            gen.writeEndArray();
+            // Se pidió limit+1: si quedó una, hay otra página
+            gen.writeStringField("nextCursor", it.hasNext() ? OrderRepositoryCustom.cursorOf(last) : null);
+            gen.writeEndObject();
+        }
+    }
+
+    /** Todas las órdenes como arreglo JSON, escritas desde el cursor de Mongo (más recientes primero). */
+    public void writeAll(OutputStream out) throws IOException {
+        ObjectWriter writer = streamWriter();
+        try (Stream<Order> orders = orderRepository.streamFiltered(new OrderFilter(), null, null, false, null);
+             JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.writeStartArray();
+            Iterator<Order> it = orders.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(gen, it.next());
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    // Sin flush por orden: el generador vacía su buffer cuando se llena
+    private ObjectWriter streamWriter() {
+        return objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
-    public List<Order> findAll() {
-        return orderRepository.findAll();
+    OrderFilter normalize(OrderFilter filter) {
+        OrderFilter f = filter == null ? new OrderFilter() : filter;
+        if (f.getFrom() != null && f.getTo() != null && !f.getFrom().isBefore(f.getTo())) {
+            throw new IllegalArgumentException("from debe ser anterior a to");
+        }
+        // Sin cambiar mayúsculas: el repositorio compara status sin distinguirlas
+        String status = f.getStatus() == null || f.getStatus().isBlank() ? null : f.getStatus().trim();
+        String userId = f.getUserId() == null || f.getUserId().isBlank() ? null : f.getUserId().trim();
+        return new OrderFilter(status, userId, f.getFrom(), f.getTo());
     }
 
     public Order getById(String id) {
@@ -94,31 +250,14 @@ public class OrderService {
         Order order = getById(id);
         if (order != null) {
             // Restaurar stock de los productos
-            for (OrderItem item : order.getItems()) {
-                Product p = productRepository.findById(item.getProductId()).orElse(null);
-                if (p != null) {
-                    p.setStock(p.getStock() + item.getQuantity());
-                    productRepository.save(p);
-                }
-            }
+            inventoryService.increment(order.getItems());
         }
         orderRepository.deleteById(id);
     }
 
     public Order createCancelledOrder(String userId, OrderRequest orderRequest) {
-        List<OrderItem> items = orderRequest.getItems();
-
         // Create cancelled order without reducing stock
-        Order o = new Order();
-        o.setUserId(userId);
-        o.setItems(items);
-        o.setTotal(orderRequest.getTotal());
-        o.setSubtotal(orderRequest.getSubtotal());
-        o.setDescuentoDuoc(orderRequest.getDescuentoDuoc());
-        o.setIva(orderRequest.getIva());
-        o.setShippingCost(orderRequest.getShippingCost());
-        o.setDeliveryOption(orderRequest.getDeliveryOption());
-        o.setShippingInfo(orderRequest.getShippingInfo());
+        Order o = buildOrder(userId, orderRequest);
         o.setStatus("CANCELLED");
 
         return orderRepository.save(o);
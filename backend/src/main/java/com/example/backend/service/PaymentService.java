@@ -8,7 +8,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class PaymentService {
@@ -16,19 +15,25 @@ public class PaymentService {
     @Autowired
     private OrderService orderService;
 
-    // Almacenamiento temporal de sesiones de pago (en producción usar Redis o BD)
-    private final Map<String, PaymentSession> paymentSessions = new ConcurrentHashMap<>();
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private PaymentSessionStore sessionStore;
 
     public Map<String, String> iniciarPago(String userId, OrderRequest orderRequest) {
         // Generar token único
         String token = UUID.randomUUID().toString();
 
+        // Precios y totales calculados en el servidor; la sesión guarda estos, no los del cliente
+        orderService.applyPricing(userId, orderRequest);
+
         // Crear sesión de pago
         PaymentSession session = new PaymentSession(token, userId, orderRequest);
-        paymentSessions.put(token, session);
 
-        // Limpiar sesiones expiradas
-        cleanupExpiredSessions();
+        // Retener el stock hasta que la sesión se confirme o expire (falla si no hay stock)
+        reservationService.reserve(token, userId, orderRequest.getItems(), session.getExpiresAt());
+        sessionStore.save(session);
 
         return Map.of(
             "url", "/webpay/simulator",
@@ -37,34 +42,29 @@ public class PaymentService {
     }
 
     public Order confirmarPago(String token, String status) {
-        PaymentSession session = paymentSessions.get(token);
+        // Se toma y elimina en un paso: una segunda confirmación del mismo token no encuentra la sesión
+        PaymentSession session = sessionStore.take(token).orElse(null);
 
         if (session == null) {
             throw new RuntimeException("Sesión de pago no encontrada o expirada");
         }
 
         if (session.isExpired()) {
-            paymentSessions.remove(token);
+            reservationService.release(token);
             throw new RuntimeException("Sesión de pago expirada");
         }
 
         // Procesar el pago según el status
         Order order;
         if ("AUTHORIZED".equals(status)) {
-            // Pago aprobado - crear orden completada
-            order = orderService.processOrderAndPayment(session.getUserId(), session.getOrderRequest());
+            // Pago aprobado - crear orden completada con el stock ya reservado
+            order = orderService.processReservedOrder(session.getUserId(), session.toOrderRequest(), token);
         } else {
-            // Pago rechazado - crear orden cancelada
-            order = orderService.createCancelledOrder(session.getUserId(), session.getOrderRequest());
+            // Pago rechazado - liberar stock y crear orden cancelada
+            reservationService.release(token);
+            order = orderService.createCancelledOrder(session.getUserId(), session.toOrderRequest());
         }
 
-        // Limpiar sesión
-        paymentSessions.remove(token);
-
         return order;
     }
-
-    private void cleanupExpiredSessions() {
-        paymentSessions.entrySet().removeIf(entry -> entry.getValue().isExpired());
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package com.example.backend.service;
+
+import com.example.backend.model.PaymentSession;
+
+import java.util.Optional;
+
+/**
+ * Almacenamiento de sesiones de pago. Se elige con app.payment.session-store:
+ * "memory" (por defecto, una sola instancia) o "mongo" (varias instancias detrás
+ * del balanceador, sin sticky sessions).
+ */
+public interface PaymentSessionStore {
+
+    void save(PaymentSession session);
+
+    /** Obtiene y elimina la sesión en una sola operación atómica; dos confirmaciones del mismo token no pueden ganar ambas. */
+    Optional<PaymentSession> take(String token);
+}
@@ -0,0 +1,195 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderQuote;
+import com.example.backend.model.Oferta;
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.Product;
+import com.example.backend.repository.ProductRepository;
+import com.example.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calcula en el servidor los precios de un pedido, en centavos (long).
+ *
+ * Precio por unidad = precio de lista, menos la mayor oferta vigente del producto o de
+ * su categoría (no se acumulan), menos 20% Duoc si el email del usuario es @duocuc.cl.
+ * IVA 19% sobre el subtotal con descuentos; total = subtotal + IVA + envío. El envío sale
+ * de ShippingRateService según región, opción de entrega y peso total del carrito. Los
+ * montos con porcentaje se redondean al peso (CLP no usa decimales), igual que el checkout.
+ *
+ * El precio con oferta de cada producto se guarda precalculado hasta el próximo cambio
+ * de vigencia de las ofertas (o el TTL), así un carrito se cotiza sin recorrer ofertas.
+ */
+@Service
+public class PricingService {
+
+    private static final long BP = 10_000;            // basis points = 100%
+    private static final long DUOC_DISCOUNT_BP = 2_000;
+    private static final long IVA_BP = 1_900;
+    private static final long PESO = 100;             // centavos
+    private static final int MAX_QUANTITY = 1_000;
+
+    private final ProductCatalogCache catalogCache;
+    private final ProductRepository productRepository;
+    private final OfferIndex offerIndex;
+    private final UserRepository userRepository;
+    private final ShippingRateService shippingRateService;
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    private final Map<String, EffectivePrice> effectivePrices = new ConcurrentHashMap<>();
+
+    public PricingService(ProductCatalogCache catalogCache,
+                          ProductRepository productRepository,
+                          OfferIndex offerIndex,
+                          UserRepository userRepository,
+                          ShippingRateService shippingRateService,
+                          MeterRegistry registry,
+                          @Value("${app.pricing.cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${app.pricing.cache.max-entries:10000}") int maxEntries) {
+        this.catalogCache = catalogCache;
+        this.productRepository = productRepository;
+        this.offerIndex = offerIndex;
+        this.userRepository = userRepository;
+        this.shippingRateService = shippingRateService;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        Gauge.builder("pricing.effective.size", effectivePrices, Map::size).register(registry);
+    }
+
+    /** Cotiza para el usuario autenticado (userId = username). */
+    public OrderQuote quote(String userId, List<OrderItem> items, String deliveryOption, String region) {
+        return quote(items, isDuoc(userId), deliveryOption, region);
+    }
+
+    public OrderQuote quote(List<OrderItem> items, boolean duoc, String deliveryOption, String region) {
+        Map<String, Integer> quantities = quantities(items);
+        Map<String, Product> products = catalogCache.getMany(quantities.keySet(), ids -> productRepository.findAllById(ids));
+        long now = System.currentTimeMillis();
+
+        List<OrderQuote.Line> lines = new ArrayList<>(quantities.size());
+        long subtotal = 0;
+        long duocDiscount = 0;
+        long weightGrams = 0;
+        for (Map.Entry<String, Integer> e : quantities.entrySet()) {
+            Product product = products.get(e.getKey());
+            if (product == null) {
+                throw new IllegalArgumentException("Producto no encontrado: " + e.getKey());
+            }
+            EffectivePrice price = effectivePrice(product, now);
+            long unit = duoc ? applyDiscount(price.offerUnitCents, DUOC_DISCOUNT_BP) : price.offerUnitCents;
+            int quantity = e.getValue();
+            long line = Math.multiplyExact(unit, (long) quantity);
+            subtotal = Math.addExact(subtotal, line);
+            duocDiscount = Math.addExact(duocDiscount, (price.offerUnitCents - unit) * quantity);
+            weightGrams = Math.addExact(weightGrams, shippingRateService.weightOf(product.getWeightGrams()) * quantity);
+            lines.add(new OrderQuote.Line(product.getId(), product.getName(), product.getImageUrl(), quantity,
+                    price.listUnitCents, price.offerUnitCents, unit, line, price.offerId));
+        }
+
+        long iva = percentOf(subtotal, IVA_BP);
+        long shipping = shippingRateService.costCents(region, deliveryOption, weightGrams);
+        long total = Math.addExact(Math.addExact(subtotal, iva), shipping);
+        return new OrderQuote(lines, duoc, subtotal, duocDiscount, iva, shipping, total);
+    }
+
+    public boolean isDuoc(String userId) {
+        if (userId == null) {
+            return false;
+        }
+        return userRepository.findByUsername(userId)
+                .map(u -> u.getEmail() != null && u.getEmail().toLowerCase(Locale.ROOT).endsWith("@duocuc.cl"))
+                .orElse(false);
+    }
+
+    /** Descarta el precio precalculado de un producto (su precio o categoría cambió). */
+    public void invalidate(String productId) {
+        effectivePrices.remove(productId);
+    }
+
+    /** Descarta todos los precios precalculados (cambiaron las ofertas). */
+    public void invalidateAll() {
+        effectivePrices.clear();
+    }
+
+    private EffectivePrice effectivePrice(Product product, long now) {
+        EffectivePrice cached = effectivePrices.get(product.getId());
+        // Se compara también el precio de lista: el cache de catálogo pudo traer un precio nuevo
+        long listCents = toCents(product.getPrice());
+        if (cached != null && now < cached.validUntil && cached.listUnitCents == listCents) {
+            return cached;
+        }
+
+        Instant at = Instant.ofEpochMilli(now);
+        Oferta best = null;
+        for (Oferta o : offerIndex.activeFor(product.getId(), product.getCategory(), at)) {
+            if (best == null || o.getDiscountPercentage() > best.getDiscountPercentage()) {
+                best = o;
+            }
+        }
+        long offerUnit = best == null ? listCents : applyDiscount(listCents, Math.round(best.getDiscountPercentage() * 100));
+
+        long validUntil = now + ttlMillis;
+        Instant nextChange = offerIndex.nextChangeAfter(at);
+        if (nextChange != null) {
+            validUntil = Math.min(validUntil, nextChange.toEpochMilli());
+        }
+        EffectivePrice price = new EffectivePrice(listCents, offerUnit, best == null ? null : best.getId(), validUntil);
+        if (effectivePrices.size() < maxEntries || effectivePrices.containsKey(product.getId())) {
+            effectivePrices.put(product.getId(), price);
+        }
+        return price;
+    }
+
+    private Map<String, Integer> quantities(List<OrderItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("El pedido no tiene productos");
+        }
+        // Misma línea repetida en el carrito: se suma
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : items) {
+            if (item == null || item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Item de pedido inválido");
+            }
+            int total = quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            if (total > MAX_QUANTITY) {
+                throw new IllegalArgumentException("Cantidad máxima por producto: " + MAX_QUANTITY);
+            }
+        }
+        return quantities;
+    }
+
+    static long toCents(BigDecimal price) {
+        if (price == null) {
+            throw new IllegalArgumentException("Producto sin precio");
+        }
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    // Precio con descuento, redondeado al peso
+    private static long applyDiscount(long cents, long discountBp) {
+        return cents - percentOf(cents, discountBp);
+    }
+
+    // cents * bp / 10000, redondeado al peso (mitad hacia arriba)
+    private static long percentOf(long cents, long bp) {
+        long scaled = Math.multiplyExact(cents, bp);
+        long unit = BP * PESO;
+        return (scaled + unit / 2) / unit * PESO;
+    }
+
+    private record EffectivePrice(long listUnitCents, long offerUnitCents, String offerId, long validUntil) {}
+}
@@ -0,0 +1,226 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache en memoria del catálogo de productos.
+ *
+ * Las lecturas no toman locks: la lista completa es un snapshot inmutable y los
+ * productos individuales viven en un ConcurrentHashMap. Cada escritura incrementa
+ * una versión; una carga desde Mongo solo se instala si la versión no cambió
+ * mientras se leía, así una lectura lenta nunca pisa una escritura más nueva.
+ *
+ * Los productos devueltos son compartidos entre requests y no deben modificarse.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+    private volatile Snapshot all;
+    private volatile long version;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ProductCatalogCache(MeterRegistry registry,
+                               @Value("${app.catalog.cache.ttl-seconds:60}") long ttlSeconds,
+                               @Value("${app.catalog.cache.max-entries:10000}") int maxEntries) {
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("catalog.cache.hits").register(registry);
+        this.misses = Counter.builder("catalog.cache.misses").register(registry);
+        this.evictions = Counter.builder("catalog.cache.evictions").register(registry);
+        Gauge.builder("catalog.cache.size", byId, Map::size).register(registry);
+        Gauge.builder("catalog.cache.version", this, c -> c.version).register(registry);
+    }
+
+    public List<Product> getAll(Supplier<List<Product>> loader) {
+        Snapshot current = all;
+        if (current != null && !isStale(current.loadedAt)) {
+            hits.increment();
+            return current.products;
+        }
+        misses.increment();
+        long startVersion = version;
+        List<Product> loaded = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+        installAll(loaded, startVersion);
+        return loaded;
+    }
+
+    public Optional<Product> get(String id, Function<String, Optional<Product>> loader) {
+        Entry entry = byId.get(id);
+        if (entry != null && !isStale(entry.loadedAt)) {
+            hits.increment();
+            return Optional.of(entry.product);
+        }
+        misses.increment();
+        long startVersion = version;
+        Optional<Product> loaded = loader.apply(id);
+        if (loaded.isPresent()) {
+            installOne(loaded.get(), startVersion);
+        } else if (entry != null) {
+            byId.remove(id, entry);
+            evictions.increment();
+        }
+        return loaded;
+    }
+
+    /**
+     * Varios productos a la vez: los que están en cache no se consultan y los faltantes
+     * se piden al loader en una sola llamada. Devuelve solo los encontrados.
+     */
+    public Map<String, Product> getMany(Collection<String> ids, Function<Collection<String>, List<Product>> loader) {
+        Map<String, Product> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            Entry entry = byId.get(id);
+            if (entry != null && !isStale(entry.loadedAt)) {
+                result.put(id, entry.product);
+            } else {
+                missing.add(id);
+            }
+        }
+        hits.increment(result.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+        misses.increment(missing.size());
+        long startVersion = version;
+        List<Product> loaded = loader.apply(missing);
+        installMany(loaded, startVersion);
+        for (Product p : loaded) {
+            result.put(p.getId(), p);
+        }
+        return result;
+    }
+
+    /** Reemplaza (o agrega) un producto recién escrito en Mongo. */
+    public synchronized void put(Product product) {
+        version++;
+        long now = System.nanoTime();
+        storeEntry(product, now);
+        Snapshot current = all;
+        if (current != null) {
+            List<Product> patched = new ArrayList<>(current.products.size() + 1);
+            boolean replaced = false;
+            for (Product p : current.products) {
+                if (p.getId().equals(product.getId())) {
+                    patched.add(product);
+                    replaced = true;
+                } else {
+                    patched.add(p);
+                }
+            }
+            if (!replaced) {
+                patched.add(product);
+            }
+            all = new Snapshot(Collections.unmodifiableList(patched), current.loadedAt);
+        }
+    }
+
+    /** Quita un producto eliminado, parchando la lista completa en vez de descartarla. */
+    public synchronized void remove(String id) {
+        version++;
+        if (byId.remove(id) != null) {
+            evictions.increment();
+        }
+        Snapshot current = all;
+        if (current != null) {
+            List<Product> patched = new ArrayList<>(current.products.size());
+            for (Product p : current.products) {
+                if (!p.getId().equals(id)) {
+                    patched.add(p);
+                }
+            }
+            all = new Snapshot(Collections.unmodifiableList(patched), current.loadedAt);
+        }
+    }
+
+    /** Descarta productos cuyo estado cambió fuera del servicio (ej. stock descontado por una orden). */
+    public void evict(String id) {
+        evictAll(List.of(id));
+    }
+
+    public synchronized void evictAll(Collection<String> ids) {
+        version++;
+        for (String id : ids) {
+            if (byId.remove(id) != null) {
+                evictions.increment();
+            }
+        }
+        if (all != null) {
+            all = null;
+            evictions.increment();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        version++;
+        evictions.increment(byId.size());
+        byId.clear();
+        all = null;
+    }
+
+    private synchronized void installAll(List<Product> products, long startVersion) {
+        if (version != startVersion) {
+            return;
+        }
+        long now = System.nanoTime();
+        all = new Snapshot(products, now);
+        for (Product p : products) {
+            storeEntry(p, now);
+        }
+    }
+
+    private synchronized void installMany(List<Product> products, long startVersion) {
+        if (version != startVersion) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Product p : products) {
+            storeEntry(p, now);
+        }
+    }
+
+    private synchronized void installOne(Product product, long startVersion) {
+        if (version != startVersion) {
+            return;
+        }
+        storeEntry(product, System.nanoTime());
+    }
+
+    private void storeEntry(Product product, long loadedAt) {
+        if (byId.size() >= maxEntries && !byId.containsKey(product.getId())) {
+            return;
+        }
+        byId.put(product.getId(), new Entry(product, loadedAt));
+    }
+
+    private boolean isStale(long loadedAt) {
+        return System.nanoTime() - loadedAt > ttlNanos;
+    }
+
+    private record Entry(Product product, long loadedAt) {}
+
+    private record Snapshot(List<Product> products, long loadedAt) {}
+}
@@ -0,0 +1,366 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ImportReport;
+import com.example.backend.model.Product;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importación masiva de productos desde un arreglo JSON, NDJSON o CSV (con encabezado).
+ *
+ * El archivo se lee como stream, fila por fila; las filas válidas se escriben en lotes de
+ * batch-size con un bulk desordenado. Una fila con id es un upsert que solo actualiza los
+ * campos presentes (stock reservado y demás campos internos no se tocan); sin id se
+ * inserta como producto nuevo. Las filas inválidas o rechazadas por Mongo van al reporte
+ * y no detienen la importación. Reimportar el mismo archivo es seguro.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format { JSON, CSV }
+
+    private static final int MAX_REPORTED_ERRORS = 1_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductCatalogCache catalogCache;
+    private final PricingService pricingService;
+    private final CategoryFacetService facetService;
+    private final int batchSize;
+
+    private final Timer batchTimer;
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public ProductImportService(MongoTemplate mongoTemplate,
+                                ObjectMapper objectMapper,
+                                ProductCatalogCache catalogCache,
+                                PricingService pricingService,
+                                CategoryFacetService facetService,
+                                MeterRegistry registry,
+                                @Value("${app.products.import.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.catalogCache = catalogCache;
+        this.pricingService = pricingService;
+        this.facetService = facetService;
+        this.batchSize = batchSize;
+        this.batchTimer = Timer.builder("products.import.batch").register(registry);
+        this.importedRows = Counter.builder("products.import.rows").tag("result", "ok").register(registry);
+        this.failedRows = Counter.builder("products.import.rows").tag("result", "failed").register(registry);
+    }
+
+    /** format=csv/json explícito o, si no viene, según el Content-Type (text/csv = CSV). */
+    public static Format parseFormat(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            return switch (format.trim().toLowerCase(Locale.ROOT)) {
+                case "csv" -> Format.CSV;
+                case "json", "ndjson" -> Format.JSON;
+                default -> throw new IllegalArgumentException("Formato no soportado: " + format + " (json, ndjson, csv)");
+            };
+        }
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).contains("csv") ? Format.CSV : Format.JSON;
+    }
+
+    public ImportReport importProducts(InputStream in, Format format) throws IOException {
+        Run run = new Run();
+        try {
+            if (format == Format.CSV) {
+                readCsv(in, run);
+            } else {
+                readJson(in, run);
+            }
+            run.flush();
+        } finally {
+            // Aunque se corte a mitad, lo ya escrito tiene que verse en el catálogo y los precios
+            if (run.report.getInserted() + run.report.getUpdated() > 0) {
+                catalogCache.invalidateAll();
+                pricingService.invalidateAll();
+                // Muchos cambios de una vez: más barato recalcular las facetas que aplicarlos uno a uno
+                facetService.rebuild();
+            }
+        }
+        return run.report;
+    }
+
+    private void readJson(InputStream in, Run run) throws IOException {
+        // Sirve tanto para un arreglo [ {...}, ... ] como para NDJSON (un objeto por línea)
+        try (MappingIterator<Product> rows = objectMapper.readerFor(Product.class).readValues(in)) {
+            long row = 0;
+            while (true) {
+                Product product;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    product = rows.nextValue();
+                } catch (JsonParseException e) {
+                    // JSON mal formado: no se puede seguir leyendo
+                    run.fail(Math.max(row, 1), null, "JSON inválido: " + e.getOriginalMessage());
+                    break;
+                } catch (JsonMappingException e) {
+                    run.fail(row, null, "Fila inválida: " + e.getOriginalMessage());
+                    continue;
+                }
+                run.add(row, product);
+            }
+            run.report.setReceived(row);
+        }
+    }
+
+    private void readCsv(InputStream in, Run run) throws IOException {
+        CsvRecords records = new CsvRecords(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header;
+        try {
+            header = records.next();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Encabezado CSV inválido: " + e.getMessage());
+        }
+        Map<String, Integer> columns = columns(header);
+
+        long row = 0;
+        while (true) {
+            List<String> fields;
+            try {
+                fields = records.next();
+            } catch (IllegalArgumentException e) {
+                run.fail(row + 1, null, "CSV inválido: " + e.getMessage());
+                break;
+            }
+            if (fields == null) {
+                break;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue; // línea vacía
+            }
+            row++;
+            String id = field(fields, columns, "id");
+            try {
+                run.add(row, fromCsv(fields, columns));
+            } catch (NumberFormatException e) {
+                run.fail(row, id, "Número inválido: " + e.getMessage());
+            }
+        }
+        run.report.setReceived(row);
+    }
+
+    private Map<String, Integer> columns(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("Archivo CSV vacío");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent("image".equals(name) ? "imageurl" : name, i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("El CSV debe tener las columnas name y price");
+        }
+        return columns;
+    }
+
+    private Product fromCsv(List<String> fields, Map<String, Integer> columns) {
+        Product p = new Product();
+        p.setId(field(fields, columns, "id"));
+        p.setName(field(fields, columns, "name"));
+        p.setDescription(field(fields, columns, "description"));
+        String price = field(fields, columns, "price");
+        p.setPrice(price == null ? null : new BigDecimal(price));
+        String stock = field(fields, columns, "stock");
+        p.setStock(stock == null ? null : Integer.valueOf(stock));
+        p.setImageUrl(field(fields, columns, "imageurl"));
+        p.setCategory(field(fields, columns, "category"));
+        String weight = field(fields, columns, "weightgrams");
+        p.setWeightGrams(weight == null ? null : Integer.valueOf(weight));
+        return p;
+    }
+
+    // Valor recortado de la columna, o null si la columna no existe o está vacía
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String validate(Product p) {
+        if (p == null) {
+            return "Fila vacía";
+        }
+        if (p.getName() == null || p.getName().isBlank()) {
+            return "name es obligatorio";
+        }
+        if (p.getPrice() == null || p.getPrice().signum() < 0) {
+            return "price es obligatorio y no puede ser negativo";
+        }
+        if (p.getStock() != null && p.getStock() < 0) {
+            return "stock no puede ser negativo";
+        }
+        if (p.getWeightGrams() != null && p.getWeightGrams() <= 0) {
+            return "weightGrams debe ser mayor que 0";
+        }
+        return null;
+    }
+
+    private static Update updateOf(Product p) {
+        Update update = new Update()
+                .set("name", p.getName())
+                .set("price", new Decimal128(p.getPrice()));
+        if (p.getDescription() != null) update.set("description", p.getDescription());
+        if (p.getStock() != null) update.set("stock", p.getStock());
+        if (p.getImageUrl() != null) update.set("imageUrl", p.getImageUrl());
+        if (p.getCategory() != null) update.set("category", p.getCategory());
+        if (p.getWeightGrams() != null) update.set("weightGrams", p.getWeightGrams());
+        return update;
+    }
+
+    private record Pending(long row, Product product) {}
+
+    /** Estado de una importación: lote en curso y reporte. */
+    private final class Run {
+        private final ImportReport report = new ImportReport();
+        private final List<Pending> batch = new ArrayList<>(batchSize);
+
+        void add(long row, Product product) {
+            String error = validate(product);
+            if (error != null) {
+                fail(row, product == null ? null : product.getId(), error);
+                return;
+            }
+            if (product.getId() != null && product.getId().isBlank()) {
+                product.setId(null);
+            }
+            batch.add(new Pending(row, product));
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void fail(long row, String id, String error) {
+            report.setFailed(report.getFailed() + 1);
+            failedRows.increment();
+            if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+                report.getErrors().add(new ImportReport.RowError(row, id, error));
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            for (Pending pending : batch) {
+                Product p = pending.product();
+                if (p.getId() == null) {
+                    bulk.insert(p);
+                } else {
+                    bulk.upsert(Query.query(Criteria.where("_id").is(p.getId())), updateOf(p));
+                }
+            }
+            int rejected = 0;
+            try {
+                account(bulk.execute());
+            } catch (BulkOperationException e) {
+                // Desordenado: Mongo aplica el resto del lote y reporta cada fila rechazada por índice
+                account(e.getResult());
+                for (BulkWriteError error : e.getErrors()) {
+                    Pending pending = batch.get(error.getIndex());
+                    fail(pending.row(), pending.product().getId(), error.getMessage());
+                    rejected++;
+                }
+            } finally {
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            importedRows.increment(batch.size() - rejected);
+            batch.clear();
+        }
+
+        private void account(BulkWriteResult result) {
+            report.setInserted(report.getInserted() + result.getInsertedCount() + result.getUpserts().size());
+            report.setUpdated(report.getUpdated() + result.getMatchedCount());
+        }
+    }
+
+    /** Lector de registros CSV (RFC 4180): comillas dobles, comas y saltos de línea dentro de comillas. */
+    private static final class CsvRecords {
+        private final Reader in;
+
+        CsvRecords(Reader in) {
+            this.in = in;
+        }
+
+        // Campos del próximo registro, o null al final del archivo
+        List<String> next() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("comillas sin cerrar");
+                    }
+                    if (c == '"') {
+                        int next = in.read();
+                        if (next != '"') {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == -1 || c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+    }
+}
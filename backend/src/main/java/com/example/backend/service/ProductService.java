@@ -1,12 +1,21 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CategoryFacet;
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.ProductDetail;
 import com.example.backend.exception.ResourceNotFoundException;
 import com.example.backend.model.Product;
+import com.example.backend.model.RatingSummary;
 import com.example.backend.repository.ProductRepository;
+import com.example.backend.repository.ProductRepositoryCustom.PageSort;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProductService {
@@ -14,27 +23,121 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private RatingSummaryService ratingSummaryService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private CategoryFacetService facetService;
+
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Campos para ?fields=; el resumen es lo que muestra la grilla del catálogo
+    static final FieldSet<Product> FIELDS = FieldSet.<Product>builder()
+            .field("id", "_id", Product::getId)
+            .field("name", "name", Product::getName)
+            .field("description", "description", Product::getDescription)
+            .field("price", "price", Product::getPrice)
+            .field("stock", "stock", Product::getStock)
+            .field("imageUrl", "imageUrl", Product::getImageUrl)
+            .field("image", "imageUrl", Product::getImage)
+            .field("category", "category", Product::getCategory)
+            .field("weightGrams", "weightGrams", Product::getWeightGrams)
+            .summary("id", "name", "price", "stock", "image", "category")
+            .build();
+
     public List<Product> findAll() {
-        return productRepository.findAll();
+        return catalogCache.getAll(productRepository::findAll);
+    }
+
+    /** Página del catálogo con los campos pedidos (fields=a,b,c), el resumen si no vienen o todo con fields=*. */
+    public CursorPage<Map<String, Object>> findPage(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                                    String sort, String cursor, Integer limit, String fields) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        FieldSet.Selection<Product> selection = FIELDS.select(fields);
+        return selection.render(productRepository.findPage(category, minPrice, maxPrice, parseSort(sort), cursor, size, selection.paths()));
+    }
+
+    private PageSort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return PageSort.ID;
+        }
+        return switch (sort) {
+            case "price_asc" -> PageSort.PRICE_ASC;
+            case "price_desc" -> PageSort.PRICE_DESC;
+            case "id" -> PageSort.ID;
+            default -> throw new IllegalArgumentException("Orden no soportado: " + sort);
+        };
     }
 
     public Product create(Product p) {
-        return productRepository.save(p);
+        Product saved = productRepository.save(p);
+        catalogCache.put(saved);
+        facetService.upsert(saved);
+        return saved;
     }
 
     public Product getById(String id) {
-        return productRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+        return catalogCache.get(id, productRepository::findById)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+    }
+
+    // Producto (desde el cache) más su resumen de valoraciones: una lectura por _id
+    public ProductDetail getDetail(String id) {
+        return new ProductDetail(getById(id), ratingSummaryService.get(id));
+    }
+
+    /**
+     * Lote de productos para la grilla: los que no están en cache se leen con un solo $in
+     * y los resúmenes de valoración con otro. Respeta el orden pedido y omite los inexistentes.
+     */
+    public List<ProductDetail> getDetails(List<String> ids) {
+        List<String> distinct = distinctIds(ids);
+        Map<String, Product> products = catalogCache.getMany(distinct, missing -> productRepository.findAllById(missing));
+        Map<String, RatingSummary> ratings = ratingSummaryService.getAll(products.keySet());
+        List<ProductDetail> result = new ArrayList<>();
+        for (String id : distinct) {
+            Product product = products.get(id);
+            if (product != null) {
+                result.add(new ProductDetail(product, ratings.get(id)));
+            }
+        }
+        return result;
+    }
+
+    static List<String> distinctIds(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Se requiere al menos un id");
+        }
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.removeIf(id -> id == null || id.isBlank());
+        if (distinct.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Máximo " + MAX_PAGE_SIZE + " ids por solicitud");
+        }
+        return distinct;
     }
 
     public Product update(String id, Product p) {
-        Product existing = getById(id);
+        // Leer desde Mongo: los productos del cache son compartidos y no se mutan
+        Product existing = productRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Product not found"));
         existing.setName(p.getName());
         existing.setDescription(p.getDescription());
         existing.setPrice(p.getPrice());
         existing.setStock(p.getStock());
         existing.setImageUrl(p.getImageUrl());
         existing.setCategory(p.getCategory());
-        return productRepository.save(existing);
+        existing.setWeightGrams(p.getWeightGrams());
+        Product saved = productRepository.save(existing);
+        catalogCache.put(saved);
+        pricingService.invalidate(id);
+        facetService.upsert(saved);
+        return saved;
     }
 
     public Product updateStock(String id, Integer newStock) {
@@ -43,10 +146,21 @@ public class ProductService {
 
         producto.setStock(newStock);
 
-        return productRepository.save(producto);
+        Product saved = productRepository.save(producto);
+        catalogCache.put(saved);
+        facetService.upsert(saved);
+        return saved;
     }
 
     public void delete(String id) {
         productRepository.deleteById(id);
+        catalogCache.remove(id);
+        pricingService.invalidate(id);
+        facetService.remove(id);
+    }
+
+    /** Facetas por categoría para el filtro del catálogo, desde memoria. */
+    public List<CategoryFacet> getFacets() {
+        return facetService.getAll();
     }
 }
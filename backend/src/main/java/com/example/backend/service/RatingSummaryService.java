@@ -0,0 +1,159 @@
+package com.example.backend.service;
+
+import com.example.backend.model.RatingSummary;
+import com.example.backend.model.Review;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resúmenes de valoración por producto (colección product_ratings).
+ *
+ * Cada review creada o borrada aplica un $inc atómico (upsert) sobre el resumen de su
+ * producto, así leer el promedio e histograma es una lectura por _id sin importar
+ * cuántas reviews tenga el producto.
+ */
+@Service
+public class RatingSummaryService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public RatingSummary get(String productId) {
+        RatingSummary summary = mongoTemplate.findById(productId, RatingSummary.class);
+        return summary != null ? summary.fillHistogram() : RatingSummary.empty(productId);
+    }
+
+    /** Resúmenes de varios productos en una consulta; los productos sin reviews vienen vacíos. */
+    public Map<String, RatingSummary> getAll(Collection<String> productIds) {
+        Map<String, RatingSummary> result = new LinkedHashMap<>();
+        for (String id : productIds) {
+            result.put(id, RatingSummary.empty(id));
+        }
+        List<RatingSummary> found = mongoTemplate.find(
+                new Query(Criteria.where("_id").in(productIds)), RatingSummary.class);
+        for (RatingSummary summary : found) {
+            result.put(summary.getProductId(), summary.fillHistogram());
+        }
+        return result;
+    }
+
+    public void added(Review review) {
+        mongoTemplate.upsert(idQuery(review.getProductId()), increments(review.getRating(), 1), RatingSummary.class);
+    }
+
+    public void removed(Review review) {
+        mongoTemplate.updateFirst(idQuery(review.getProductId()), increments(review.getRating(), -1), RatingSummary.class);
+    }
+
+    /** Varias reviews nuevas a la vez: suma por producto y aplica un upsert por producto en un solo bulk. */
+    public void addedAll(Collection<Review> reviews) {
+        // [count, sum, votos 1..5] por producto
+        Map<String, long[]> totals = new HashMap<>();
+        for (Review review : reviews) {
+            long[] t = totals.computeIfAbsent(review.getProductId(), id -> new long[7]);
+            t[0]++;
+            t[1] += review.getRating();
+            t[1 + review.getRating()]++;
+        }
+        if (totals.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RatingSummary.class);
+        totals.forEach((productId, t) -> {
+            Update update = new Update().inc("count", t[0]).inc("sum", t[1]);
+            for (int stars = 1; stars <= 5; stars++) {
+                if (t[1 + stars] > 0) {
+                    update.inc("histogram." + stars, t[1 + stars]);
+                }
+            }
+            bulk.upsert(idQuery(productId), update);
+        });
+        bulk.execute();
+    }
+
+    /** Recalcula todos los resúmenes desde la colección de reviews (datos previos a los resúmenes). */
+    public int rebuildAll() {
+        Map<String, RatingSummary> summaries = summarize(Criteria.where("rating").gte(1).lte(5));
+        mongoTemplate.remove(new Query(), RatingSummary.class);
+        if (!summaries.isEmpty()) {
+            mongoTemplate.insertAll(summaries.values());
+        }
+        return summaries.size();
+    }
+
+    /**
+     * Recalcula desde reviews los resúmenes de los productos indicados. A diferencia de los
+     * $inc se puede repetir sin contar dos veces, así que sirve tras un addedAll fallido
+     * del que no se sabe qué upserts alcanzaron a aplicarse.
+     */
+    public void rebuild(Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Map<String, RatingSummary> summaries = summarize(
+                Criteria.where("productId").in(productIds).and("rating").gte(1).lte(5));
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RatingSummary.class);
+        for (String productId : productIds) {
+            RatingSummary summary = summaries.get(productId);
+            if (summary == null) {
+                bulk.remove(idQuery(productId));
+            } else {
+                bulk.replaceOne(idQuery(productId), summary, FindAndReplaceOptions.options().upsert());
+            }
+        }
+        bulk.execute();
+    }
+
+    public boolean isEmpty() {
+        return mongoTemplate.count(new Query(), RatingSummary.class) == 0;
+    }
+
+    // Cuenta reviews por (producto, estrellas) y arma un resumen por producto
+    private Map<String, RatingSummary> summarize(Criteria criteria) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group("productId", "rating").count().as("n"));
+        List<Document> groups = mongoTemplate.aggregate(aggregation, "reviews", Document.class).getMappedResults();
+
+        Map<String, RatingSummary> summaries = new HashMap<>();
+        for (Document group : groups) {
+            Document key = (Document) group.get("_id");
+            String productId = key.getString("productId");
+            int rating = ((Number) key.get("rating")).intValue();
+            long n = ((Number) group.get("n")).longValue();
+            if (productId == null) {
+                continue;
+            }
+            RatingSummary summary = summaries.computeIfAbsent(productId, RatingSummary::empty);
+            summary.setCount(summary.getCount() + n);
+            summary.setSum(summary.getSum() + n * rating);
+            summary.getHistogram().merge(String.valueOf(rating), n, Long::sum);
+        }
+        return summaries;
+    }
+
+    private Query idQuery(String productId) {
+        return new Query(Criteria.where("_id").is(productId));
+    }
+
+    private Update increments(int rating, int sign) {
+        return new Update()
+                .inc("count", sign)
+                .inc("sum", sign * rating)
+                .inc("histogram." + rating, sign);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.backend.service;
+
+import com.example.backend.exception.ServiceBusyException;
+import com.example.backend.model.Review;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cola acotada para reviews enviadas por la API, escritas a Mongo en lotes.
+ *
+ * El request solo valida, asigna id y encola (O(1)); un único hilo vacía la cola cada
+ * flush-interval-ms, o antes si se junta un lote completo, con un insert bulk
+ * desordenado y un $inc por producto en los resúmenes. Con la cola llena el envío se
+ * rechaza con 503 en vez de acumular memoria o hilos.
+ *
+ * Solo el insert se reintenta. Si falla el $inc de resúmenes (un bulk desordenado que
+ * puede haberse aplicado en parte) no se repite: esos productos se recalculan desde
+ * reviews antes del siguiente lote.
+ */
+@Component
+public class ReviewIngestionBuffer {
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final RatingSummaryService ratingSummaryService;
+    private final BlockingQueue<Review> queue;
+    private final int batchSize;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final Timer flushTimer;
+    private final Counter rejected;
+    private final Counter failed;
+
+    // Lote en curso; solo lo usa el hilo de flush. Se conserva si Mongo falla para reintentar.
+    private final List<Review> batch = new ArrayList<>();
+    private int attempts;
+    // Productos cuyo resumen quedó incierto tras un $inc fallido; también solo del hilo de flush
+    private final Set<String> staleSummaries = new HashSet<>();
+
+    public ReviewIngestionBuffer(MongoTemplate mongoTemplate,
+                                 RatingSummaryService ratingSummaryService,
+                                 MeterRegistry registry,
+                                 @Value("${app.reviews.ingest.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${app.reviews.ingest.batch-size:500}") int batchSize,
+                                 @Value("${app.reviews.ingest.flush-interval-ms:200}") long flushIntervalMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.ratingSummaryService = ratingSummaryService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+
+        this.flushTimer = Timer.builder("reviews.ingest.flush").register(registry);
+        this.rejected = Counter.builder("reviews.ingest.rejected").register(registry);
+        this.failed = Counter.builder("reviews.ingest.failed").register(registry);
+        Gauge.builder("reviews.ingest.queue.depth", queue, BlockingQueue::size).register(registry);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "review-ingest");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Encola la review (ya validada) y la devuelve con su id definitivo. */
+    public Review submit(Review review) {
+        review.setId(new ObjectId().toHexString());
+        if (!queue.offer(review)) {
+            rejected.increment();
+            throw new ServiceBusyException("Demasiadas reviews en proceso, intenta nuevamente");
+        }
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // Apagando: shutdown() escribe lo que quede en la cola
+            }
+        }
+        return review;
+    }
+
+    private void flush() {
+        flushRequested.set(false);
+        try {
+            while (flushOnce() && queue.size() >= batchSize) {
+                // Lotes completos pendientes: seguir sin esperar al próximo intervalo
+            }
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría el scheduleWithFixedDelay
+            System.err.println("Review flush failed: " + e.getMessage());
+        }
+    }
+
+    // true si escribió un lote; false si no había nada o Mongo falló
+    private boolean flushOnce() {
+        if (!repairSummaries()) {
+            return false;
+        }
+        if (batch.isEmpty()) {
+            queue.drainTo(batch, batchSize);
+            attempts = 0;
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            List<Review> inserted;
+            try {
+                inserted = insertBatch();
+            } catch (DataAccessException e) {
+                if (++attempts >= MAX_ATTEMPTS) {
+                    failed.increment(batch.size());
+                    System.err.println("Dropping " + batch.size() + " reviews after " + attempts + " attempts: " + e.getMessage());
+                    batch.clear();
+                }
+                return false;
+            }
+            // Las reviews ya están guardadas: desde acá el lote no se vuelve a escribir
+            batch.clear();
+            try {
+                ratingSummaryService.addedAll(inserted);
+            } catch (DataAccessException e) {
+                for (Review review : inserted) {
+                    staleSummaries.add(review.getProductId());
+                }
+                System.err.println("Rating summary update failed, recomputing " + staleSummaries.size() + " products: " + e.getMessage());
+            }
+            return true;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Recalcula (idempotente) los resúmenes que quedaron inciertos; false si Mongo sigue fallando
+    private boolean repairSummaries() {
+        if (staleSummaries.isEmpty()) {
+            return true;
+        }
+        try {
+            ratingSummaryService.rebuild(staleSummaries);
+            staleSummaries.clear();
+            return true;
+        } catch (DataAccessException e) {
+            System.err.println("Rating summary recompute failed for " + staleSummaries.size() + " products: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private List<Review> insertBatch() {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Review.class);
+        bulk.insert(batch);
+        try {
+            bulk.execute();
+            // Copia: el lote se vacía antes de actualizar los resúmenes
+            return new ArrayList<>(batch);
+        } catch (BulkOperationException e) {
+            // Un id duplicado solo puede venir de un intento anterior que sí escribió: cuenta como insertada
+            Set<Integer> rejectedIndexes = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    rejectedIndexes.add(error.getIndex());
+                }
+            }
+            failed.increment(rejectedIndexes.size());
+            List<Review> inserted = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (!rejectedIndexes.contains(i)) {
+                    inserted.add(batch.get(i));
+                }
+            }
+            return inserted;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        // Escribir lo que quedó en la cola antes de cerrar
+        while (flushOnce()) {
+            // siguiente lote
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.ProductReviews;
+import com.example.backend.model.RatingSummary;
 import com.example.backend.model.Review;
 import com.example.backend.repository.ReviewRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ReviewService {
@@ -13,19 +21,75 @@ public class ReviewService {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private RatingSummaryService ratingSummaryService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ReviewIngestionBuffer ingestionBuffer;
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_LATEST = 3;
+    private static final int MAX_LATEST = 20;
+
     public List<Review> findAll() {
         return reviewRepository.findAll();
     }
 
-    public List<Review> findByProductId(String productId) {
-        return reviewRepository.findByProductId(productId);
+    public CursorPage<Review> findPageByProduct(String productId, Integer rating, String cursor, Integer limit) {
+        if (rating != null && (rating < 1 || rating > 5)) {
+            throw new IllegalArgumentException("La valoración debe estar entre 1 y 5");
+        }
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return reviewRepository.findPageByProduct(productId, rating, cursor, size);
+    }
+
+    /** Resumen y últimas reviews de varios productos: un $in sobre product_ratings y una agregación sobre reviews. */
+    public List<ProductReviews> findLatestByProducts(List<String> productIds, Integer perProduct) {
+        List<String> distinct = ProductService.distinctIds(productIds);
+        int n = perProduct == null ? DEFAULT_LATEST : Math.max(1, Math.min(perProduct, MAX_LATEST));
+        Map<String, RatingSummary> ratings = ratingSummaryService.getAll(distinct);
+        Map<String, List<Review>> latest = reviewRepository.findLatestByProducts(distinct, n);
+        List<ProductReviews> result = new ArrayList<>();
+        for (String id : distinct) {
+            result.add(new ProductReviews(id, ratings.get(id), latest.getOrDefault(id, List.of())));
+        }
+        return result;
+    }
+
+    /**
+     * Envío desde la API: valida y encola; la escritura y el resumen se aplican en el
+     * siguiente lote de ReviewIngestionBuffer. Lanza ServiceBusyException si la cola está llena.
+     */
+    public Review submit(Review review) {
+        validate(review);
+        return ingestionBuffer.submit(review);
     }
 
     public Review create(Review review) {
-        return reviewRepository.save(review);
+        validate(review);
+        Review saved = reviewRepository.save(review);
+        ratingSummaryService.added(saved);
+        return saved;
     }
 
     public void delete(String id) {
-        reviewRepository.deleteById(id);
+        // findAndRemove devuelve la review borrada: solo quien la borró descuenta el resumen
+        Review removed = mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(id)), Review.class);
+        if (removed != null && removed.getRating() >= 1 && removed.getRating() <= 5) {
+            ratingSummaryService.removed(removed);
+        }
+    }
+
+    private void validate(Review review) {
+        if (review.getProductId() == null || review.getProductId().isBlank()) {
+            throw new IllegalArgumentException("productId es obligatorio");
+        }
+        if (review.getRating() < 1 || review.getRating() > 5) {
+            throw new IllegalArgumentException("La valoración debe estar entre 1 y 5");
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Costos de envío desde la tabla en app.shipping.rates-location (classpath: o file:).
+ *
+ * La tabla se carga completa en un ShippingRateTable inmutable y se publica con un
+ * AtomicReference: una recarga nunca bloquea a los lectores, que ven la tabla anterior
+ * o la nueva completa. Si el archivo cambia se recarga sola; si la tabla nueva es
+ * inválida se mantiene la anterior.
+ */
+@Service
+public class ShippingRateService {
+
+    public static final String DEFAULT_OPTION = "standard";
+
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final long defaultItemWeightGrams;
+    private final AtomicReference<ShippingRateTable> table = new AtomicReference<>();
+    private final Counter reloadFailures;
+
+    private volatile long lastModified = -1;
+
+    public ShippingRateService(ResourceLoader resourceLoader,
+                               MeterRegistry registry,
+                               @Value("${app.shipping.rates-location:classpath:shipping-rates.csv}") String location,
+                               @Value("${app.shipping.default-item-weight-grams:500}") long defaultItemWeightGrams) {
+        this.resourceLoader = resourceLoader;
+        this.location = location;
+        this.defaultItemWeightGrams = defaultItemWeightGrams;
+        this.reloadFailures = Counter.builder("shipping.rates.reload.failures").register(registry);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        // Al arrancar una tabla inválida sí debe impedir el inicio
+        table.set(load(resourceLoader.getResource(location)));
+    }
+
+    /** Costo de envío en centavos para el peso total del pedido. */
+    public long costCents(String region, String deliveryOption, long weightGrams) {
+        String option = deliveryOption == null || deliveryOption.isBlank() ? DEFAULT_OPTION : deliveryOption;
+        long cost = table.get().costCents(region, option, weightGrams);
+        if (cost < 0) {
+            throw new IllegalArgumentException("Opción de envío no disponible: " + option);
+        }
+        return cost;
+    }
+
+    public long weightOf(Integer weightGrams) {
+        return weightGrams != null && weightGrams > 0 ? weightGrams : defaultItemWeightGrams;
+    }
+
+    @Scheduled(fixedDelayString = "${app.shipping.reload-interval-ms:30000}")
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(location);
+        long modified;
+        try {
+            modified = resource.lastModified();
+        } catch (IOException e) {
+            return; // recurso dentro del jar: no cambia en caliente
+        }
+        if (modified == lastModified) {
+            return;
+        }
+        try {
+            ShippingRateTable loaded = load(resource);
+            table.set(loaded);
+            System.out.println("Shipping rates reloaded from " + location + " (" + loaded.getRows() + " rows)");
+        } catch (IOException | IllegalArgumentException e) {
+            reloadFailures.increment();
+            lastModified = modified; // no reintentar el mismo archivo inválido en cada ciclo
+            System.err.println("Shipping rates reload failed, keeping previous table: " + e.getMessage());
+        }
+    }
+
+    private ShippingRateTable load(Resource resource) throws IOException {
+        long modified;
+        try {
+            modified = resource.lastModified();
+        } catch (IOException e) {
+            modified = -1;
+        }
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            ShippingRateTable loaded = ShippingRateTable.parse(reader);
+            lastModified = modified;
+            return loaded;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tabla inmutable de costos de envío: región → opción de entrega → tramos de peso.
+ *
+ * Cada par región/opción guarda dos arreglos paralelos (límite superior en gramos y
+ * costo en centavos) ordenados por peso; buscar un costo son dos lecturas de mapa y
+ * una búsqueda binaria, sin crear objetos. La región "*" aplica cuando la región del
+ * pedido no tiene filas propias para esa opción.
+ */
+public final class ShippingRateTable {
+
+    public static final String ANY_REGION = "*";
+
+    private final Map<String, Map<String, Bands>> rates;
+    private final int rows;
+
+    private ShippingRateTable(Map<String, Map<String, Bands>> rates, int rows) {
+        this.rates = rates;
+        this.rows = rows;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /** Costo en centavos, o -1 si no hay tarifa para esa región/opción. */
+    public long costCents(String region, String deliveryOption, long weightGrams) {
+        Bands bands = find(normalize(region), normalize(deliveryOption));
+        return bands == null ? -1 : bands.costFor(weightGrams);
+    }
+
+    private Bands find(String region, String option) {
+        if (region != null) {
+            Map<String, Bands> byOption = rates.get(region);
+            if (byOption != null && byOption.containsKey(option)) {
+                return byOption.get(option);
+            }
+        }
+        Map<String, Bands> fallback = rates.get(ANY_REGION);
+        return fallback == null ? null : fallback.get(option);
+    }
+
+    /** Minúsculas, sin tildes ni espacios: "Los Ríos" y "losrios" son la misma región. */
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return stripped.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9*]", "");
+    }
+
+    /**
+     * Lee el CSV region,deliveryOption,maxWeightGrams,costPesos. Ignora líneas vacías,
+     * comentarios (#) y el encabezado. Lanza IllegalArgumentException si la tabla es inválida.
+     */
+    public static ShippingRateTable parse(Reader source) throws IOException {
+        Map<String, Map<String, TreeMap<Long, Long>>> raw = new HashMap<>();
+        int rows = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(source)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || line.startsWith("region,")) {
+                    continue;
+                }
+                String[] cols = line.split(",");
+                if (cols.length != 4) {
+                    throw new IllegalArgumentException("Línea " + lineNumber + ": se esperaban 4 columnas");
+                }
+                String region = normalize(cols[0]);
+                String option = normalize(cols[1]);
+                long maxWeight;
+                long cost;
+                try {
+                    maxWeight = "*".equals(cols[2].trim()) ? Long.MAX_VALUE : Long.parseLong(cols[2].trim());
+                    cost = new BigDecimal(cols[3].trim()).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+                } catch (NumberFormatException | ArithmeticException e) {
+                    throw new IllegalArgumentException("Línea " + lineNumber + ": número inválido");
+                }
+                if (region.isEmpty() || option.isEmpty() || maxWeight <= 0 || cost < 0) {
+                    throw new IllegalArgumentException("Línea " + lineNumber + ": valores inválidos");
+                }
+                TreeMap<Long, Long> bands = raw.computeIfAbsent(region, r -> new HashMap<>())
+                        .computeIfAbsent(option, o -> new TreeMap<>());
+                if (bands.put(maxWeight, cost) != null) {
+                    throw new IllegalArgumentException("Línea " + lineNumber + ": tramo repetido");
+                }
+                rows++;
+            }
+        }
+
+        Map<String, Map<String, Bands>> rates = new HashMap<>();
+        raw.forEach((region, byOption) -> {
+            Map<String, Bands> compiled = new HashMap<>();
+            byOption.forEach((option, bands) -> {
+                if (bands.lastKey() != Long.MAX_VALUE) {
+                    throw new IllegalArgumentException("Falta el tramo * para " + region + "/" + option);
+                }
+                compiled.put(option, Bands.of(bands));
+            });
+            rates.put(region, Map.copyOf(compiled));
+        });
+        return new ShippingRateTable(Map.copyOf(rates), rows);
+    }
+
+    private static final class Bands {
+        private final long[] upperGrams;
+        private final long[] costCents;
+
+        private Bands(long[] upperGrams, long[] costCents) {
+            this.upperGrams = upperGrams;
+            this.costCents = costCents;
+        }
+
+        static Bands of(TreeMap<Long, Long> sorted) {
+            List<Long> uppers = new ArrayList<>(sorted.keySet());
+            long[] upper = new long[uppers.size()];
+            long[] cost = new long[uppers.size()];
+            for (int i = 0; i < upper.length; i++) {
+                upper[i] = uppers.get(i);
+                cost[i] = sorted.get(upper[i]);
+            }
+            return new Bands(upper, cost);
+        }
+
+        // Primer tramo cuyo límite superior es >= peso
+        long costFor(long weightGrams) {
+            int lo = 0;
+            int hi = upperGrams.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (upperGrams[mid] >= weightGrams) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return costCents[lo];
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.backend.service;
+
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.StockReservation;
+import com.example.backend.repository.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retiene stock mientras el comprador está en Webpay.
+ *
+ * La reserva se crea en iniciarPago con el mismo vencimiento que la PaymentSession.
+ * Pasa de HELD a COMMITTED (pago autorizado) o a RELEASED (rechazo o vencimiento)
+ * con un findAndModify condicionado al estado, así el confirm y el barrido nunca
+ * procesan la misma reserva dos veces, aunque corran en instancias distintas.
+ */
+@Service
+public class StockReservationService {
+
+    private static final int SWEEP_BATCH = 500;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    public void reserve(String token, String userId, List<OrderItem> items, Instant expiresAt) {
+        List<OrderItem> reserved = new ArrayList<>();
+        if (items != null) {
+            for (OrderItem item : items) {
+                OrderItem line = new OrderItem();
+                line.setProductId(item.getProductId());
+                line.setQuantity(item.getQuantity());
+                reserved.add(line);
+            }
+        }
+
+        // Primero el registro: si el proceso cae después del descuento, el barrido lo encuentra
+        reservationRepository.save(new StockReservation(token, userId, reserved, expiresAt));
+        try {
+            inventoryService.hold(token, reserved);
+        } catch (RuntimeException e) {
+            reservationRepository.deleteById(token);
+            throw e;
+        }
+    }
+
+    public void commit(String token) {
+        StockReservation reservation = transition(token, StockReservation.COMMITTED, true);
+        if (reservation == null) {
+            throw new RuntimeException("Reserva de stock expirada");
+        }
+        List<String> productIds = new ArrayList<>();
+        reservation.getItems().forEach(it -> productIds.add(it.getProductId()));
+        inventoryService.commitHold(token, productIds);
+    }
+
+    public void release(String token) {
+        StockReservation reservation = transition(token, StockReservation.RELEASED, false);
+        if (reservation != null) {
+            inventoryService.releaseHold(token, reservation.getItems());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reservations.sweep-interval-ms:15000}")
+    public void releaseExpired() {
+        List<StockReservation> expired = reservationRepository.findByStatusAndExpiresAtBefore(
+                StockReservation.HELD, Instant.now(), PageRequest.of(0, SWEEP_BATCH));
+        for (StockReservation reservation : expired) {
+            release(reservation.getId());
+        }
+    }
+
+    private StockReservation transition(String token, String status, boolean requireNotExpired) {
+        Criteria criteria = Criteria.where("_id").is(token).and("status").is(StockReservation.HELD);
+        if (requireNotExpired) {
+            criteria.and("expiresAt").gt(Instant.now());
+        }
+        return mongoTemplate.findAndModify(
+                new Query(criteria),
+                new Update().set("status", status),
+                FindAndModifyOptions.options().returnNew(true),
+                StockReservation.class);
+    }
+}
@@ -4,10 +4,15 @@ import com.example.backend.model.Role;
 import com.example.backend.model.User;
 import com.example.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -17,32 +22,55 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private JwtUserDetailsService userDetailsService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
 
     public User register(String username, String email, String password) {
-        // Check if user already exists by username or email
-        if (userRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists: " + username);
-        }
-        if (userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already exists: " + email);
+        return createUser(username, email, password, Role.CLIENTE);
+    }
+
+    public Optional<User> findByUsername(String username) {
+        if (username == null || username.isBlank()) {
+            return Optional.empty();
         }
+        // Una sola consulta sobre emailKey/usernameKey (únicos): sin distinguir mayúsculas
+        String key = User.normalizeKey(username);
+        List<User> matches = userRepository.findByEmailKeyOrUsernameKey(key, key);
 
-        User u = new User(username, email, passwordEncoder.encode(password));
-        HashSet<Role> roles = new HashSet<>();
-        roles.add(Role.CLIENTE);
-        u.setRoles(roles);
-        return userRepository.save(u);
+        // Email first (since frontend allows login with email), then username
+        return matches.stream()
+                .filter(u -> key.equals(u.getEmailKey()))
+                .findFirst()
+                .or(() -> matches.stream().findFirst());
     }
 
-    public Optional<User> findByUsername(String username) {
-        // First try to find by email (since frontend allows login with email)
-        Optional<User> userByEmail = userRepository.findByEmail(username);
-        if (userByEmail.isPresent()) {
-            return userByEmail;
+    /** Login: resuelve al usuario con una consulta y verifica la contraseña sin volver a la base. */
+    public Optional<User> authenticate(String loginId, String rawPassword) {
+        if (rawPassword == null) {
+            return Optional.empty();
         }
-        // If not found by email, try by username
-        return userRepository.findByUsername(username);
+        Optional<User> user = findByUsername(loginId)
+                .filter(u -> u.getPassword() != null && passwordHashingService.matches(rawPassword, u.getPassword()));
+        user.filter(u -> passwordHashingService.needsUpgrade(u.getPassword()))
+                .ifPresent(u -> upgradePasswordHash(u, rawPassword));
+        return user;
+    }
+
+    // Re-hash con el costo actual sin demorar el login; solo reemplaza si el hash no cambió entretanto
+    private void upgradePasswordHash(User user, String rawPassword) {
+        String previousHash = user.getPassword();
+        passwordHashingService.encodeInBackground(rawPassword).thenAccept(newHash -> {
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(user.getId()).and("password").is(previousHash)),
+                    new Update().set("password", newHash),
+                    User.class);
+            userDetailsService.evict(user.getUsername());
+        });
     }
 
     public Optional<User> findByEmail(String email) {
@@ -50,44 +78,52 @@ public class UserService {
     }
 
     public User createUser(String username, String email, String password, Role role) {
-        // Check if user already exists by username or email
-        if (userRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists: " + username);
-        }
-        if (userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already exists: " + email);
-        }
-
-        User u = new User(username, email, passwordEncoder.encode(password));
+        User u = new User(username, email, passwordHashingService.encode(password));
         HashSet<Role> roles = new HashSet<>();
         roles.add(role);
         u.setRoles(roles);
-        return userRepository.save(u);
+        // Una sola escritura: los índices únicos rechazan duplicados, también en registros concurrentes
+        try {
+            return userRepository.insert(u);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUser(e, username, email);
+        }
     }
 
     public User updateUser(String id, String username, String email, Role role) {
         User existing = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Check if username/email conflicts with other users
-        if (!existing.getUsername().equals(username) && userRepository.existsByUsername(username)) {
-            throw new RuntimeException("Username already exists: " + username);
-        }
-        if (!existing.getEmail().equals(email) && userRepository.existsByEmail(email)) {
-            throw new RuntimeException("Email already exists: " + email);
-        }
-
+        String previousUsername = existing.getUsername();
         existing.setUsername(username);
         existing.setEmail(email);
         HashSet<Role> roles = new HashSet<>();
         roles.add(role);
         existing.setRoles(roles);
-        return userRepository.save(existing);
+        User saved;
+        try {
+            saved = userRepository.save(existing);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUser(e, username, email);
+        }
+
+        // Roles o nombre pudieron cambiar: invalidar ambas claves del cache de UserDetails
+        userDetailsService.evict(previousUsername);
+        userDetailsService.evict(username);
+        return saved;
     }
 
-    public void deleteUser(String id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found");
+    // El mensaje del servidor incluye el nombre del índice violado
+    private RuntimeException duplicateUser(DuplicateKeyException e, String username, String email) {
+        String message = String.valueOf(e.getMessage());
+        if (message.contains("email_key_unique")) {
+            return new RuntimeException("Email already exists: " + email);
         }
+        return new RuntimeException("Username already exists: " + username);
+    }
+
+    public void deleteUser(String id) {
+        User existing = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
         userRepository.deleteById(id);
+        userDetailsService.evict(existing.getUsername());
     }
 }
@@ -0,0 +1,114 @@
+package com.example.backend.benchmark;
+
+import com.example.backend.dto.OrderQuote;
+import com.example.backend.model.Oferta;
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.Product;
+import com.example.backend.service.OfferIndex;
+import com.example.backend.service.PricingService;
+import com.example.backend.service.ProductCatalogCache;
+import com.example.backend.service.ShippingRateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de cotizar un carrito de 50 líneas con PricingService: productos desde el cache
+ * de catálogo, ofertas por categoría y por producto, descuento Duoc y envío por tramo de peso.
+ *
+ * Ejecutar con:
+ *   mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.example.backend.benchmark.PricingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int LINES = 50;
+    private static final String[] CATEGORIES = { "Accesorios", "Consolas", "Juegos de mesa", "Mouses", "Pc Gamers" };
+
+    private PricingService pricingService;
+    private List<OrderItem> cart;
+
+    @Setup
+    public void setup() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProductCatalogCache catalogCache = new ProductCatalogCache(registry, 3600, 10_000);
+        OfferIndex offerIndex = new OfferIndex(registry);
+
+        cart = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            Product p = new Product("Producto " + i, "", BigDecimal.valueOf(19_990 + i * 1_000L), 100,
+                    "/images/" + i + ".webp", CATEGORIES[i % CATEGORIES.length]);
+            p.setId(String.valueOf(i));
+            catalogCache.put(p);
+            cart.add(new OrderItem(p.getId(), 1 + i % 3, p.getName(), 0, p.getImageUrl()));
+        }
+
+        List<Oferta> ofertas = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Oferta o = new Oferta("Oferta " + CATEGORIES[i], "", 5 + i * 5, null);
+            o.setId("cat-" + i);
+            o.setCategory(CATEGORIES[i]);
+            o.setStartsAt(now.minusSeconds(3600));
+            o.setEndsAt(now.plusSeconds(86_400));
+            ofertas.add(o);
+        }
+        for (int i = 0; i < LINES; i += 7) {
+            Oferta o = new Oferta("Oferta producto " + i, "", 30, null);
+            o.setId("prod-" + i);
+            o.setProductId(String.valueOf(i));
+            ofertas.add(o);
+        }
+        offerIndex.rebuild(ofertas);
+
+        // Tabla de envíos del classpath, la misma que usa la aplicación
+        ShippingRateService shippingRateService = new ShippingRateService(new DefaultResourceLoader(), registry,
+                "classpath:shipping-rates.csv", 500);
+        shippingRateService.init();
+
+        // Sin Mongo: todos los productos están en el cache y Duoc se pasa explícito
+        pricingService = new PricingService(catalogCache, null, offerIndex, null, shippingRateService, registry, 3600, 10_000);
+    }
+
+    // Caso normal: precios efectivos ya precalculados
+    @Benchmark
+    public OrderQuote quoteWarm() {
+        return pricingService.quote(cart, true, "express", "metropolitana");
+    }
+
+    // Peor caso: cada cotización recalcula las ofertas de las 50 líneas
+    @Benchmark
+    public OrderQuote quoteCold() {
+        pricingService.invalidateAll();
+        return pricingService.quote(cart, true, "express", "metropolitana");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PricingBenchmark.class.getSimpleName()).build()).run();
+    }
+}